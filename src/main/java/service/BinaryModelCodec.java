@@ -0,0 +1,298 @@
+package service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import service.models.Amount;
+import service.models.DividendData;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+import service.models.FundamentalData;
+import service.models.StockData;
+
+/**
+ * Compact fixed layout binary encoding of the response models, for high volume internal consumers.
+ *
+ * Every record starts with a type byte, and nullable fields are flagged in a presence byte up front.
+ * Integers are zigzag varints, dates are epoch days, and amounts are the scale followed by the unscaled value, both
+ * varints, so they round trip exactly.  History payment dates are stored as the day difference from the previous payment.
+ * Strings are a varint byte length followed by UTF-8.
+ *
+ * Layouts, after the type byte:
+ * StockData       presence, name, symbol, exchange, industry, sector
+ * DividendData    presence, lastPayDate, lastExDividendDate, lastDividend, estimatedForwardAnnualDividend,
+ *                 estimatedForwardAnnualYield, yearsPaying
+ * DividendHistory count, then per payment (in date order) date delta, presence, dividend
+ * FundamentalData presence, lastOpen, lastClose, volume (whole shares), peRatio, closeDate
+ */
+public class BinaryModelCodec {
+	private static final byte STOCK_DATA = 1;
+	private static final byte DIVIDEND_DATA = 2;
+	private static final byte DIVIDEND_HISTORY = 3;
+	private static final byte FUNDAMENTAL_DATA = 4;
+
+	public boolean supports(Class<?> type) {
+		return type == StockData.class || type == DividendData.class
+				|| type == DividendHistory.class || type == FundamentalData.class;
+	}
+
+	public void encode(Object model, OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+
+		if (model instanceof StockData) {
+			out.writeByte(STOCK_DATA);
+			encodeStockData((StockData) model, out);
+		}
+		else if (model instanceof DividendData) {
+			out.writeByte(DIVIDEND_DATA);
+			encodeDividendData((DividendData) model, out);
+		}
+		else if (model instanceof DividendHistory) {
+			out.writeByte(DIVIDEND_HISTORY);
+			encodeDividendHistory((DividendHistory) model, out);
+		}
+		else if (model instanceof FundamentalData) {
+			out.writeByte(FUNDAMENTAL_DATA);
+			encodeFundamentalData((FundamentalData) model, out);
+		}
+		else {
+			throw new IllegalArgumentException("Cannot encode " + model.getClass().getName());
+		}
+
+		out.flush();
+	}
+
+	public <T> T decode(InputStream inputStream, Class<T> type) throws IOException {
+		DataInputStream in = new DataInputStream(inputStream);
+		byte tag = in.readByte();
+		Object model;
+
+		switch (tag) {
+			case STOCK_DATA:
+				model = decodeStockData(in);
+				break;
+			case DIVIDEND_DATA:
+				model = decodeDividendData(in);
+				break;
+			case DIVIDEND_HISTORY:
+				model = decodeDividendHistory(in);
+				break;
+			case FUNDAMENTAL_DATA:
+				model = decodeFundamentalData(in);
+				break;
+			default:
+				throw new IOException("Unknown record type " + tag);
+		}
+
+		if (!type.isInstance(model)) {
+			throw new IOException("Expected " + type.getSimpleName() + " but found " + model.getClass().getSimpleName());
+		}
+
+		return type.cast(model);
+	}
+
+	private void encodeStockData(StockData data, DataOutputStream out) throws IOException {
+		out.writeByte(presence(data.getName(), data.getSymbol(), data.getExchange(), data.getIndustry(), data.getSector()));
+		writeString(data.getName(), out);
+		writeString(data.getSymbol(), out);
+		writeString(data.getExchange(), out);
+		writeString(data.getIndustry(), out);
+		writeString(data.getSector(), out);
+	}
+
+	private StockData decodeStockData(DataInputStream in) throws IOException {
+		int presence = in.readUnsignedByte();
+		StockData data = new StockData();
+		data.setName(isPresent(presence, 0) ? readString(in) : null);
+		data.setSymbol(isPresent(presence, 1) ? readString(in) : null);
+		data.setExchange(isPresent(presence, 2) ? readString(in) : null);
+		data.setIndustry(isPresent(presence, 3) ? readString(in) : null);
+		data.setSector(isPresent(presence, 4) ? readString(in) : null);
+
+		return data;
+	}
+
+	private void encodeDividendData(DividendData data, DataOutputStream out) throws IOException {
+		out.writeByte(presence(data.getLastPayDate(), data.getLastExDividendDate(), data.getLastDividendAmount(),
+				data.getEstimatedForwardAnnualDividendAmount(), data.getEstimatedForwardAnnualYieldAmount()));
+		writeDate(data.getLastPayDate(), out);
+		writeDate(data.getLastExDividendDate(), out);
+		writeAmount(data.getLastDividendAmount(), out);
+		writeAmount(data.getEstimatedForwardAnnualDividendAmount(), out);
+		writeAmount(data.getEstimatedForwardAnnualYieldAmount(), out);
+		writeVarLong(data.getYearsPaying(), out);
+	}
+
+	private DividendData decodeDividendData(DataInputStream in) throws IOException {
+		int presence = in.readUnsignedByte();
+		DividendData data = new DividendData();
+		data.setLastPayDate(isPresent(presence, 0) ? readDate(in) : null);
+		data.setLastExDividendDate(isPresent(presence, 1) ? readDate(in) : null);
+		data.setLastDividendAmount(isPresent(presence, 2) ? readAmount(in) : null);
+		data.setEstimatedForwardAnnualDividendAmount(isPresent(presence, 3) ? readAmount(in) : null);
+		data.setEstimatedForwardAnnualYieldAmount(isPresent(presence, 4) ? readAmount(in) : null);
+		data.setYearsPaying((int) readVarLong(in));
+
+		return data;
+	}
+
+	private void encodeDividendHistory(DividendHistory history, DataOutputStream out) throws IOException {
+		List<DividendPayment> payments = history.getDividends();
+		writeVarLong(payments.size(), out);
+		long previousDay = 0;
+
+		for (DividendPayment payment : payments) {
+			long day = payment.getDate().toEpochDay();
+			writeVarLong(day - previousDay, out);
+			previousDay = day;
+
+			out.writeByte(presence(payment.getDividendAmount()));
+			writeAmount(payment.getDividendAmount(), out);
+		}
+	}
+
+	private DividendHistory decodeDividendHistory(DataInputStream in) throws IOException {
+		DividendHistory history = new DividendHistory();
+		long count = readVarLong(in);
+		long day = 0;
+
+		for (long i = 0; i < count; i++) {
+			day += readVarLong(in);
+			int presence = in.readUnsignedByte();
+			Amount dividend = isPresent(presence, 0) ? readAmount(in) : null;
+			history.addDividendPayment(LocalDate.ofEpochDay(day), dividend);
+		}
+
+		return history;
+	}
+
+	private void encodeFundamentalData(FundamentalData data, DataOutputStream out) throws IOException {
+		out.writeByte(presence(data.getLastOpenAmount(), data.getLastCloseAmount(), data.getPeRatioAmount(), data.getCloseDate()));
+		writeAmount(data.getLastOpenAmount(), out);
+		writeAmount(data.getLastCloseAmount(), out);
+		writeVarLong(wholeShares(data.getVolume()), out);
+		writeAmount(data.getPeRatioAmount(), out);
+		writeDate(data.getCloseDate(), out);
+	}
+
+	private FundamentalData decodeFundamentalData(DataInputStream in) throws IOException {
+		int presence = in.readUnsignedByte();
+		FundamentalData data = new FundamentalData();
+		data.setLastOpenAmount(isPresent(presence, 0) ? readAmount(in) : null);
+		data.setLastCloseAmount(isPresent(presence, 1) ? readAmount(in) : null);
+		data.setVolume(readVarLong(in));
+		data.setPeRatioAmount(isPresent(presence, 2) ? readAmount(in) : null);
+		data.setCloseDate(isPresent(presence, 3) ? readDate(in) : null);
+
+		return data;
+	}
+
+	/**
+	 * Volume is a double in the model but always a whole number of shares, anything else cannot be encoded exactly.
+	 */
+	private static long wholeShares(double volume) {
+		if (volume != Math.rint(volume) || Math.abs(volume) >= 0x1p63) {
+			throw new IllegalArgumentException("Volume " + volume + " is not a whole number of shares");
+		}
+
+		return (long) volume;
+	}
+
+	/**
+	 * A bit per value, set when the value is not null.  Absent values are not written at all.
+	 */
+	private static int presence(Object... values) {
+		int presence = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				presence |= 1 << i;
+			}
+		}
+
+		return presence;
+	}
+
+	private static boolean isPresent(int presence, int index) {
+		return (presence & (1 << index)) != 0;
+	}
+
+	private static void writeString(String value, DataOutputStream out) throws IOException {
+		if (value != null) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(bytes.length, out);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[(int) readVarLong(in)];
+		in.readFully(bytes);
+
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeDate(LocalDate value, DataOutputStream out) throws IOException {
+		if (value != null) {
+			writeVarLong(value.toEpochDay(), out);
+		}
+	}
+
+	private static LocalDate readDate(DataInputStream in) throws IOException {
+		return LocalDate.ofEpochDay(readVarLong(in));
+	}
+
+	private static void writeAmount(Amount value, DataOutputStream out) throws IOException {
+		if (value != null) {
+			writeVarLong(value.getScale(), out);
+			writeVarLong(value.getUnscaled(), out);
+		}
+	}
+
+	private static Amount readAmount(DataInputStream in) throws IOException {
+		long scale = readVarLong(in);
+		if (scale != (int) scale) {
+			throw new IOException("Malformed amount scale " + scale);
+		}
+
+		return Amount.of(readVarLong(in), (int) scale);
+	}
+
+	/**
+	 * Zigzag varint, so small negative and positive numbers both take few bytes.
+	 */
+	private static void writeVarLong(long value, DataOutputStream out) throws IOException {
+		long zigzag = (value << 1) ^ (value >> 63);
+
+		while ((zigzag & ~0x7FL) != 0) {
+			out.writeByte((int) ((zigzag & 0x7F) | 0x80));
+			zigzag >>>= 7;
+		}
+		out.writeByte((int) zigzag);
+	}
+
+	private static long readVarLong(DataInputStream in) throws IOException {
+		long zigzag = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			int b = in.read();
+			if (b < 0) {
+				throw new EOFException();
+			}
+
+			zigzag |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+
+		throw new IOException("Malformed varint");
+	}
+}
@@ -0,0 +1,36 @@
+package service;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+/**
+ * Reads and writes the response models in the BinaryModelCodec layout, for clients that ask for it in their Accept header.
+ */
+public class BinaryModelHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+	public static final MediaType APPLICATION_DIVIDEND_BINARY = MediaType.valueOf("application/x-dividendstock-binary");
+
+	private final BinaryModelCodec codec = new BinaryModelCodec();
+
+	public BinaryModelHttpMessageConverter() {
+		super(APPLICATION_DIVIDEND_BINARY);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return codec.supports(clazz);
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage) throws IOException {
+		return codec.decode(inputMessage.getBody(), clazz);
+	}
+
+	@Override
+	protected void writeInternal(Object model, HttpOutputMessage outputMessage) throws IOException {
+		codec.encode(model, outputMessage.getBody());
+	}
+}
@@ -0,0 +1,28 @@
+package service;
+
+/**
+ * Receives changes to the service caches.
+ *
+ * Values are the cached response bodies (e.g. a StockData), or null when the cached response was a 404.
+ * Callbacks run on the thread that changed the cache, so implementations must be quick and must not block.
+ */
+public interface CacheEntryListener {
+
+	/**
+	 * A value was cached for the key, replacing the previous value if there was one.
+	 */
+	default void entryPut(String cacheName, Object key, Object previousValue, Object value) {
+	}
+
+	/**
+	 * The key was evicted from the cache.
+	 */
+	default void entryEvicted(String cacheName, Object key, Object previousValue) {
+	}
+
+	/**
+	 * Every entry was removed from the cache.
+	 */
+	default void cacheCleared(String cacheName) {
+	}
+}
@@ -1,26 +1,64 @@
 package service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Class to manage caching.
- * 
- * For now it is just using the default Spring manager and so has to be manually cleared.
- * As we are not tracking realtime quotes, just end of day values, everything can be cached for a day. 
+ *
+ * For now it is just using the default Spring in memory caches.  Rather than clearing them daily, the RefreshScheduler
+ * refreshes each cached symbol as often as its data can change.
+ *
+ * Each cache is wrapped so that any CacheEntryListener beans hear about entries being cached and removed.
+ * When a SharedCacheStore is configured the caches also become the first level of a TwoLevelCache, so instances of
+ * the service share what they have scraped and only one of them scrapes each symbol.
  */
 
 @Configuration
 @EnableCaching
+@EnableScheduling
 public class CacheManagement {
-	@Autowired
-	private CacheManager cacheManager;
-    
-    @Scheduled(cron = "0 1 0 * * ?")
-    public void clearCacheDaily() { 
-    	cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
-    }
+	@Autowired(required = false)
+	private List<CacheEntryListener> listeners = new ArrayList<>();
+
+	@Autowired(required = false)
+	private SharedCacheStore sharedCacheStore;
+
+	private final String owner = UUID.randomUUID().toString();
+	private final long sharedTtlMillis;
+	private final long leaseMillis;
+
+	public CacheManagement(
+			@Value("${cache.shared.ttl-ms:86400000}") long sharedTtlMillis,
+			@Value("${cache.shared.lease-ms:30000}") long leaseMillis) {
+		this.sharedTtlMillis = sharedTtlMillis;
+		this.leaseMillis = leaseMillis;
+	}
+
+	@Bean
+	public CacheManager cacheManager() {
+		return new ConcurrentMapCacheManager() {
+			@Override
+			protected Cache createConcurrentMapCache(String name) {
+				Cache cache = new ObservedCache(super.createConcurrentMapCache(name), listeners);
+
+				if (sharedCacheStore != null) {
+					cache = new TwoLevelCache(cache, sharedCacheStore, owner, sharedTtlMillis, leaseMillis);
+				}
+
+				return cache;
+			}
+		};
+	}
 }
@@ -0,0 +1,222 @@
+package service;
+
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import service.HTMLUnitDataSource.StockPage;
+
+/**
+ * Reloads cached entries from upstream in place, so clients keep being served the old value until the new one is in.
+ *
+ * Entries are cached exactly as the controller would have cached them.  If upstream has nothing for the symbol, for
+ * example because the request failed, the cached value is left alone rather than replaced with a not found.
+ * Refreshed histories are merged with any imported payments, so a scrape never loses them.
+ *
+ * With a shared cache tier every instance runs its own RefreshScheduler, so scheduled refreshes take the symbol's
+ * shared lease first.  An instance that cannot get the lease leaves the refresh to the holder, and one that finds a
+ * shared entry written after its own takes that entry instead of fetching, so each symbol is only fetched once
+ * across the fleet.
+ */
+@Component
+public class CacheRefresher {
+	private static final Logger log = LoggerFactory.getLogger(CacheRefresher.class);
+
+	@Autowired
+	private HTMLUnitDataSource dataSource;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@Autowired
+	private ImportedDividends importedDividends;
+
+	@Autowired
+	private StockCacheView cacheView;
+
+	/**
+	 * Loads the symbol's entry for the named cache from upstream and caches it, unless another instance has
+	 * already refreshed it or is doing so now.
+	 *
+	 * @param cacheName one of the StockCacheView cache names
+	 * @param symbol
+	 * @return true if a value was cached
+	 */
+	public boolean refresh(String cacheName, String symbol) {
+		String key = symbol.toUpperCase();
+
+		return coordinated(key, false, () -> fetch(cacheName, key) ? 1 : 0, cacheName) > 0;
+	}
+
+	/**
+	 * Fetches the symbol's main page once and caches the stock data, dividend data and fundamentals read from it,
+	 * unless another instance has already refreshed them or is doing so now.
+	 * As all three share a page, refreshing the prices also refreshes the dividend data for free.
+	 *
+	 * @param symbol
+	 * @param onlyCached only update caches that already hold the symbol
+	 * @return number of caches updated
+	 */
+	public int refreshStockPage(String symbol, boolean onlyCached) {
+		String key = symbol.toUpperCase();
+
+		return coordinated(key, onlyCached, () -> fetchStockPage(key, onlyCached),
+				StockCacheView.FUNDAMENTAL_DATA, StockCacheView.STOCK_DATA, StockCacheView.DIVIDEND_DATA);
+	}
+
+	/**
+	 * Reloads the symbol in all of the caches, with one fetch of the main page and one of the dividend history.
+	 * This is an explicit reload, so it always goes upstream.
+	 *
+	 * @param symbol
+	 * @return number of caches updated
+	 */
+	public int refreshAll(String symbol) {
+		String key = symbol.toUpperCase();
+
+		return fetchStockPage(key, false) + (fetch(StockCacheView.DIVIDEND_HISTORY, key) ? 1 : 0);
+	}
+
+	/**
+	 * The symbol's cached response body, loading it through the cache on a miss the same way the controller does.
+	 * A not found is cached like any other response and concurrent misses share one load.
+	 *
+	 * @param cacheName one of the StockCacheView cache names
+	 * @param symbol
+	 * @param type
+	 * @return the body, or null if upstream has nothing for the symbol
+	 */
+	public <T> T getOrLoad(String cacheName, String symbol, Class<T> type) {
+		String key = symbol.toUpperCase();
+		Cache cache = cacheManager.getCache(cacheName);
+		ResponseEntity<?> entity;
+
+		try {
+			entity = cache.get(key, () -> {
+				Object body = StockCacheView.DIVIDEND_HISTORY.equals(cacheName) && importedDividends.contains(key)
+						? importedDividends.merge(key, null) : load(cacheName, key);
+
+				return body != null ? ResponseEntity.status(HttpStatus.OK).body(body) : ResponseEntity.notFound().build();
+			});
+		}
+		catch (Cache.ValueRetrievalException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+
+		Object body = entity != null ? entity.getBody() : null;
+		return type.isInstance(body) ? type.cast(body) : null;
+	}
+
+	/**
+	 * Runs the fetch under the symbol's lease in the first cache, unless the shared tier already has newer entries.
+	 * Without a shared tier the fetch just runs.
+	 *
+	 * @return number of caches updated
+	 */
+	private int coordinated(String symbol, boolean onlyCached, IntSupplier fetch, String... cacheNames) {
+		TwoLevelCache leased = twoLevelCache(cacheNames[0]);
+
+		if (leased == null) {
+			return fetch.getAsInt();
+		}
+
+		if (!leased.tryLease(symbol)) {
+			log.debug("Another instance is refreshing " + cacheNames[0] + " for:" + symbol);
+			return 0;
+		}
+
+		try {
+			int taken = 0;
+
+			for (String cacheName : cacheNames) {
+				TwoLevelCache cache = twoLevelCache(cacheName);
+
+				if (cache != null && (!onlyCached || cacheView.contains(cacheName, symbol))
+						&& cache.takeNewerShared(symbol, cacheView.getWrittenAt(cacheName, symbol))) {
+					taken++;
+				}
+			}
+
+			return taken > 0 ? taken : fetch.getAsInt();
+		}
+		finally {
+			leased.releaseLease(symbol);
+		}
+	}
+
+	private boolean fetch(String cacheName, String symbol) {
+		Object body = load(cacheName, symbol);
+
+		if (body == null) {
+			log.debug("Refresh of " + cacheName + " found nothing upstream for:" + symbol);
+			return false;
+		}
+
+		cache(cacheName, symbol, body);
+		return true;
+	}
+
+	private int fetchStockPage(String symbol, boolean onlyCached) {
+		StockPage stockPage = dataSource.createStockPage(symbol);
+
+		if (stockPage == null) {
+			log.debug("Refresh of the stock page found nothing upstream for:" + symbol);
+			return 0;
+		}
+
+		int updated = 0;
+		updated += cacheIfWanted(StockCacheView.STOCK_DATA, symbol, stockPage.getStockData(), onlyCached);
+		updated += cacheIfWanted(StockCacheView.DIVIDEND_DATA, symbol, stockPage.getDividendData(), onlyCached);
+		updated += cacheIfWanted(StockCacheView.FUNDAMENTAL_DATA, symbol, stockPage.getFundamentalData(), onlyCached);
+
+		return updated;
+	}
+
+	private TwoLevelCache twoLevelCache(String cacheName) {
+		Cache cache = cacheManager.getCache(cacheName);
+
+		return cache instanceof TwoLevelCache ? (TwoLevelCache) cache : null;
+	}
+
+	private int cacheIfWanted(String cacheName, String symbol, Object body, boolean onlyCached) {
+		if (body == null || (onlyCached && !cacheView.contains(cacheName, symbol))) {
+			return 0;
+		}
+
+		cache(cacheName, symbol, body);
+		return 1;
+	}
+
+	private Object load(String cacheName, String symbol) {
+		switch (cacheName) {
+			case StockCacheView.STOCK_DATA:
+				return dataSource.createStockData(symbol);
+			case StockCacheView.DIVIDEND_DATA:
+				return dataSource.createDividendData(symbol);
+			case StockCacheView.DIVIDEND_HISTORY:
+				return importedDividends.merge(symbol, dataSource.createDividendHistory(symbol));
+			case StockCacheView.FUNDAMENTAL_DATA:
+				return dataSource.createFundamentalData(symbol);
+			default:
+				throw new IllegalArgumentException("Unknown cache " + cacheName);
+		}
+	}
+
+	private void cache(String cacheName, String symbol, Object body) {
+		Cache cache = cacheManager.getCache(cacheName);
+
+		if (cache != null) {
+			cache.put(symbol, ResponseEntity.status(HttpStatus.OK).body(body));
+		}
+	}
+}
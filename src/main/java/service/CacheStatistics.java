@@ -0,0 +1,76 @@
+package service;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters describing how one of the caches has been used since startup.
+ *
+ * Returned as-is from the admin endpoint, so the getters double as the JSON shape.
+ */
+public class CacheStatistics {
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder puts = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder clears = new LongAdder();
+	private final IntSupplier size;
+
+	CacheStatistics(IntSupplier size) {
+		this.size = size;
+	}
+
+	void recordHit() {
+		hits.increment();
+	}
+
+	void recordMiss() {
+		misses.increment();
+	}
+
+	void recordPut() {
+		puts.increment();
+	}
+
+	void recordEviction() {
+		evictions.increment();
+	}
+
+	void recordClear() {
+		clears.increment();
+	}
+
+	public int getSize() {
+		return size.getAsInt();
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Fraction of reads answered from the cache, or 0 before the first read.
+	 */
+	public double getHitRatio() {
+		long hitCount = hits.sum();
+		long reads = hitCount + misses.sum();
+
+		return reads > 0 ? (double) hitCount / reads : 0;
+	}
+
+	public long getPuts() {
+		return puts.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	public long getClears() {
+		return clears.sum();
+	}
+}
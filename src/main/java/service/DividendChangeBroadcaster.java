@@ -0,0 +1,244 @@
+package service;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import service.models.DividendChange;
+
+/**
+ * Pushes DividendChange events to Server-Sent Event subscribers.
+ *
+ * A subscription is just an emitter and a small bounded queue, no thread is held while it is idle.
+ * Publishing only offers to the queues, so producers never wait on a client.  Queues are drained on a fixed pool of
+ * stream.sender-threads with a bounded backlog, and a subscriber whose queue fills up, or whose drain finds the
+ * backlog full, is too slow to keep up and is disconnected, it can reconnect and re-read.
+ * The disconnect itself is left to the subscriber's drain, as completing the emitter waits for any send in progress.
+ * A heartbeat comment is sent periodically so idle connections are not closed by the load balancer.
+ */
+@Component
+public class DividendChangeBroadcaster {
+	private static final Object HEARTBEAT = new Object();
+	private static final Logger log = LoggerFactory.getLogger(DividendChangeBroadcaster.class);
+
+	private final long timeoutMillis;
+	private final int queueCapacity;
+	private final ConcurrentMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+	private final Set<Subscriber> allSubscribers = ConcurrentHashMap.newKeySet();
+	private final ExecutorService senders;
+	private final ScheduledExecutorService heartbeats;
+
+	public DividendChangeBroadcaster(
+			@Value("${stream.timeout-ms:1800000}") long timeoutMillis,
+			@Value("${stream.queue-capacity:64}") int queueCapacity,
+			@Value("${stream.heartbeat-ms:30000}") long heartbeatMillis,
+			@Value("${stream.sender-threads:8}") int senderThreads,
+			@Value("${stream.sender-queue:1024}") int senderQueue) {
+		this.timeoutMillis = timeoutMillis;
+		this.queueCapacity = queueCapacity;
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(senderQueue), runnable -> {
+					Thread thread = new Thread(runnable, "dividend-stream-" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		senders.allowCoreThreadTimeOut(true);
+		this.senders = senders;
+		this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "dividend-stream-heartbeat");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Subscribes to changes for the given (upper case) symbols.
+	 *
+	 * @param symbols
+	 * @return the emitter to hand back to Spring MVC
+	 */
+	public SseEmitter subscribe(Collection<String> symbols) {
+		return subscribe(symbols, new SseEmitter(timeoutMillis));
+	}
+
+	/**
+	 * Subscribes through the given emitter.
+	 */
+	SseEmitter subscribe(Collection<String> symbols, SseEmitter emitter) {
+		Subscriber subscriber = new Subscriber(emitter, symbols);
+
+		subscriber.emitter.onCompletion(() -> unsubscribe(subscriber));
+		subscriber.emitter.onTimeout(() -> unsubscribe(subscriber));
+		subscriber.emitter.onError(e -> unsubscribe(subscriber));
+
+		try {
+			//Sent straight away so the client sees the response start without waiting for the first change
+			subscriber.emitter.send(SseEmitter.event().comment("subscribed"));
+		}
+		catch (IOException e) {
+			subscriber.emitter.completeWithError(e);
+			return subscriber.emitter;
+		}
+
+		allSubscribers.add(subscriber);
+		for (String symbol : symbols) {
+			subscribers.compute(symbol, (s, symbolSubscribers) -> {
+				Set<Subscriber> updated = symbolSubscribers != null ? symbolSubscribers : ConcurrentHashMap.newKeySet();
+				updated.add(subscriber);
+				return updated;
+			});
+		}
+
+		return subscriber.emitter;
+	}
+
+	/**
+	 * Queues the change for every subscriber of its symbol.  Never blocks.
+	 *
+	 * @param change
+	 */
+	public void publish(DividendChange change) {
+		Set<Subscriber> symbolSubscribers = subscribers.get(change.getSymbol());
+
+		if (symbolSubscribers != null) {
+			symbolSubscribers.forEach(subscriber -> offer(subscriber, change));
+		}
+	}
+
+	public int getSubscriberCount() {
+		return allSubscribers.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		heartbeats.shutdownNow();
+		senders.shutdownNow();
+		allSubscribers.forEach(subscriber -> subscriber.emitter.complete());
+	}
+
+	void sendHeartbeats() {
+		allSubscribers.forEach(subscriber -> offer(subscriber, HEARTBEAT));
+	}
+
+	private void offer(Subscriber subscriber, Object event) {
+		if (subscriber.closed.get()) {
+			return;
+		}
+
+		if (!subscriber.queue.offer(event)) {
+			if (event != HEARTBEAT && subscriber.closed.compareAndSet(false, true)) {
+				log.debug("Disconnecting slow dividend stream subscriber for " + subscriber.symbols);
+				unsubscribe(subscriber);
+				scheduleDrain(subscriber);
+			}
+			return;
+		}
+
+		scheduleDrain(subscriber);
+	}
+
+	private void scheduleDrain(Subscriber subscriber) {
+		if (subscriber.draining.compareAndSet(false, true)) {
+			try {
+				senders.execute(() -> drain(subscriber));
+			}
+			catch (RejectedExecutionException e) {
+				//Every sender is busy and the backlog is full, so the subscriber is dropped rather than waited for.
+				//No drain is running for it, so nothing is sending and completing here cannot block.
+				log.debug("Disconnecting dividend stream subscriber for " + subscriber.symbols + ", senders are full");
+				subscriber.closed.set(true);
+				unsubscribe(subscriber);
+				subscriber.queue.clear();
+				subscriber.emitter.complete();
+			}
+		}
+	}
+
+	/**
+	 * Sends everything queued for the subscriber, or completes the emitter once it has been closed.
+	 * Only one drain runs per subscriber at a time, and none run after it is closed.
+	 */
+	private void drain(Subscriber subscriber) {
+		do {
+			Object event;
+
+			while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+				try {
+					if (event == HEARTBEAT) {
+						subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+					}
+					else {
+						DividendChange change = (DividendChange) event;
+						subscriber.emitter.send(SseEmitter.event()
+								.name("dividend-change")
+								.data(change, MediaType.APPLICATION_JSON));
+					}
+				}
+				catch (IOException | IllegalStateException e) {
+					subscriber.closed.set(true);
+					unsubscribe(subscriber);
+					subscriber.queue.clear();
+					return;
+				}
+			}
+
+			if (subscriber.closed.get()) {
+				subscriber.queue.clear();
+				subscriber.emitter.complete();
+				return;
+			}
+
+			subscriber.draining.set(false);
+		}
+		//Something may have been queued, or the subscriber closed, after the last check but before draining was reset
+		while ((!subscriber.queue.isEmpty() || subscriber.closed.get()) && subscriber.draining.compareAndSet(false, true));
+	}
+
+	private void unsubscribe(Subscriber subscriber) {
+		allSubscribers.remove(subscriber);
+
+		for (String symbol : subscriber.symbols) {
+			subscribers.computeIfPresent(symbol, (s, symbolSubscribers) -> {
+				symbolSubscribers.remove(subscriber);
+				return symbolSubscribers.isEmpty() ? null : symbolSubscribers;
+			});
+		}
+	}
+
+	private final class Subscriber {
+		final SseEmitter emitter;
+		final Collection<String> symbols;
+		final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+		final AtomicBoolean draining = new AtomicBoolean();
+		final AtomicBoolean closed = new AtomicBoolean();
+
+		Subscriber(SseEmitter emitter, Collection<String> symbols) {
+			this.emitter = emitter;
+			this.symbols = symbols;
+		}
+	}
+}
@@ -0,0 +1,150 @@
+package service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import service.models.Amount;
+import service.models.DividendChange;
+import service.models.DividendData;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+
+/**
+ * Watches dividend data and history being cached and publishes a DividendChange when a value differs from the
+ * one previously cached for the symbol.
+ *
+ * Only the few compared fields are remembered per symbol, so changes are still caught after the caches are cleared.
+ * The first value seen for a symbol is just recorded, as there is nothing to compare it to.
+ */
+@Component
+public class DividendChangeDetector implements CacheEntryListener {
+
+	@Autowired
+	private DividendChangeBroadcaster broadcaster;
+
+	private final ConcurrentMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+	@Override
+	public void entryPut(String cacheName, Object key, Object previousValue, Object value) {
+		if (value instanceof DividendData) {
+			dividendDataCached(key.toString().toUpperCase(), (DividendData) value);
+		}
+		else if (value instanceof DividendHistory) {
+			dividendHistoryCached(key.toString().toUpperCase(), (DividendHistory) value);
+		}
+	}
+
+	private void dividendDataCached(String symbol, DividendData data) {
+		List<String> changed = new ArrayList<>();
+
+		Snapshot snapshot = snapshots.compute(symbol, (s, previous) -> {
+			Snapshot next = (previous != null ? previous : Snapshot.EMPTY).withData(data);
+
+			if (previous != null && previous.hasData) {
+				if (!sameAmount(previous.lastDividend, next.lastDividend)) {
+					changed.add("lastDividend");
+				}
+				if (!Objects.equals(previous.lastExDividendDate, next.lastExDividendDate)) {
+					changed.add("lastExDividendDate");
+				}
+				if (!sameAmount(previous.estimatedForwardAnnualDividend, next.estimatedForwardAnnualDividend)) {
+					changed.add("estimatedForwardAnnualDividend");
+				}
+			}
+
+			return next;
+		});
+
+		publish(symbol, snapshot, changed);
+	}
+
+	private void dividendHistoryCached(String symbol, DividendHistory history) {
+		List<DividendPayment> payments = history.getDividends();
+		DividendPayment latest = payments.isEmpty() ? null : payments.get(payments.size() - 1);
+		List<String> changed = new ArrayList<>();
+
+		Snapshot snapshot = snapshots.compute(symbol, (s, previous) -> {
+			Snapshot next = (previous != null ? previous : Snapshot.EMPTY).withLatestPayment(latest);
+
+			if (previous != null && previous.hasHistory
+					&& (!Objects.equals(previous.latestPaymentDate, next.latestPaymentDate)
+							|| !sameAmount(previous.latestPaymentDividend, next.latestPaymentDividend))) {
+				changed.add("dividendHistory");
+			}
+
+			return next;
+		});
+
+		publish(symbol, snapshot, changed);
+	}
+
+	private void publish(String symbol, Snapshot snapshot, List<String> changed) {
+		if (changed.isEmpty()) {
+			return;
+		}
+
+		DividendChange change = new DividendChange();
+		change.setSymbol(symbol);
+		change.setChangedFields(changed);
+		change.setLastDividend(toBigDecimal(snapshot.lastDividend));
+		change.setLastExDividendDate(snapshot.lastExDividendDate);
+		change.setEstimatedForwardAnnualDividend(toBigDecimal(snapshot.estimatedForwardAnnualDividend));
+		change.setLatestPaymentDate(snapshot.latestPaymentDate);
+		change.setLatestPaymentDividend(toBigDecimal(snapshot.latestPaymentDividend));
+
+		broadcaster.publish(change);
+	}
+
+	private static boolean sameAmount(Amount a, Amount b) {
+		return a == null ? b == null : b != null && a.compareTo(b) == 0;
+	}
+
+	private static BigDecimal toBigDecimal(Amount amount) {
+		return amount != null ? amount.toBigDecimal() : null;
+	}
+
+	/**
+	 * The compared dividend values last cached for a symbol.
+	 */
+	private static final class Snapshot {
+		static final Snapshot EMPTY = new Snapshot(false, null, null, null, false, null, null);
+
+		final boolean hasData;
+		final Amount lastDividend;
+		final LocalDate lastExDividendDate;
+		final Amount estimatedForwardAnnualDividend;
+		final boolean hasHistory;
+		final LocalDate latestPaymentDate;
+		final Amount latestPaymentDividend;
+
+		Snapshot(boolean hasData, Amount lastDividend, LocalDate lastExDividendDate,
+				Amount estimatedForwardAnnualDividend, boolean hasHistory, LocalDate latestPaymentDate,
+				Amount latestPaymentDividend) {
+			this.hasData = hasData;
+			this.lastDividend = lastDividend;
+			this.lastExDividendDate = lastExDividendDate;
+			this.estimatedForwardAnnualDividend = estimatedForwardAnnualDividend;
+			this.hasHistory = hasHistory;
+			this.latestPaymentDate = latestPaymentDate;
+			this.latestPaymentDividend = latestPaymentDividend;
+		}
+
+		Snapshot withData(DividendData data) {
+			return new Snapshot(true, data.getLastDividendAmount(), data.getLastExDividendDate(),
+					data.getEstimatedForwardAnnualDividendAmount(), hasHistory, latestPaymentDate, latestPaymentDividend);
+		}
+
+		Snapshot withLatestPayment(DividendPayment latest) {
+			return new Snapshot(hasData, lastDividend, lastExDividendDate, estimatedForwardAnnualDividend, true,
+					latest != null ? latest.getDate() : null, latest != null ? latest.getDividendAmount() : null);
+		}
+	}
+}
@@ -0,0 +1,383 @@
+package service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import service.models.Amount;
+import service.models.CsvImportResult;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+import service.models.StockData;
+
+/**
+ * Loads dividend histories and stock data from local CSV files into the service, without going upstream.
+ *
+ * Dividend files have "symbol,date,amount" rows with ISO dates.  A file whose header starts "symbol,name" is read as
+ * stock data instead, with "symbol,name,exchange,sector,industry" rows.  Header rows and rows that cannot be parsed
+ * are skipped.
+ *
+ * Large files are split into byte ranges that are parsed in parallel, each with its own streaming reader, so a file
+ * never has to fit in memory as text.  A row belongs to the range its first byte falls in.
+ * Imported payments are kept in ImportedDividends, so they survive eviction and are merged into every later scrape.
+ * They are also merged with any already cached history, keeping the cached amount for a date in both.
+ */
+@Component
+public class DividendCsvImporter {
+	private static final long MIN_CHUNK_BYTES = 4 * 1024 * 1024;
+	private static final int READ_BUFFER_BYTES = 64 * 1024;
+	private static final Logger log = LoggerFactory.getLogger(DividendCsvImporter.class);
+
+	@Autowired
+	private StockCacheView cacheView;
+
+	@Autowired
+	private ImportedDividends importedDividends;
+
+	private final String importPath;
+	private final int parallelism;
+
+	public DividendCsvImporter(
+			@Value("${import.dividends.path:}") String importPath,
+			@Value("${import.parallelism:0}") int parallelism) {
+		this.importPath = importPath;
+		this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Imports the configured path once the service is up, if one is set.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void importAtStartup() {
+		if (importPath.isEmpty()) {
+			return;
+		}
+
+		try {
+			CsvImportResult result = importFiles(getImportRoot());
+			log.info("Imported " + result.getRows() + " rows from " + result.getFiles() + " files in " + result.getElapsedMillis() + "ms");
+		}
+		catch (IOException e) {
+			log.warn("Import of " + importPath + " failed, exception:" + e.toString());
+		}
+	}
+
+	/**
+	 * The configured file or directory to import from, or null if there is none.
+	 */
+	public Path getImportRoot() {
+		return importPath.isEmpty() ? null : Paths.get(importPath).toAbsolutePath().normalize();
+	}
+
+	/**
+	 * Imports a CSV file, or every .csv file in a directory.
+	 *
+	 * @param path
+	 */
+	public CsvImportResult importFiles(Path path) throws IOException {
+		long started = System.currentTimeMillis();
+		List<Path> files = csvFiles(path);
+		Rows rows = new Rows();
+		ExecutorService executor = newExecutor();
+
+		try {
+			List<Future<?>> chunks = new ArrayList<>();
+
+			for (Path file : files) {
+				boolean stockFile = isStockFile(file);
+				long size = Files.size(file);
+				long chunkSize = stockFile ? Math.max(size, 1) : Math.max(MIN_CHUNK_BYTES, size / parallelism + 1);
+
+				for (long start = 0; start < size; start += chunkSize) {
+					long from = start;
+					long to = Math.min(size, start + chunkSize);
+					chunks.add(executor.submit(() -> {
+						parseChunk(file, from, to, stockFile, rows);
+						return null;
+					}));
+				}
+			}
+
+			for (Future<?> chunk : chunks) {
+				chunk.get();
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Import interrupted", e);
+		}
+		catch (ExecutionException e) {
+			throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+
+		CsvImportResult result = new CsvImportResult();
+		result.setFiles(files.size());
+		result.setRows(rows.accepted.sum());
+		result.setRejectedRows(rows.rejected.sum());
+		result.setHistories(cacheHistories(rows.payments));
+		result.setStocks(cacheStocks(rows.stocks));
+		result.setElapsedMillis(System.currentTimeMillis() - started);
+
+		return result;
+	}
+
+	private List<Path> csvFiles(Path path) throws IOException {
+		if (!Files.isDirectory(path)) {
+			return Files.isRegularFile(path) ? Collections.singletonList(path) : new ArrayList<>();
+		}
+
+		try (Stream<Path> entries = Files.list(path)) {
+			return entries.filter(Files::isRegularFile)
+					.filter(file -> file.getFileName().toString().toLowerCase().endsWith(".csv"))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+	}
+
+	private boolean isStockFile(Path file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String header = reader.readLine();
+			return header != null && header.replace(" ", "").toLowerCase().startsWith("symbol,name");
+		}
+	}
+
+	/**
+	 * Parses the rows starting within [start, end) of the file.
+	 */
+	private void parseChunk(Path file, long start, long end, boolean stockFile, Rows rows) throws IOException {
+		Map<String, List<DividendPayment>> payments = new HashMap<>();
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long position = Math.max(0, start - 1);
+			channel.position(position);
+			InputStream in = new BufferedInputStream(Channels.newInputStream(channel), READ_BUFFER_BYTES);
+			LineBuffer line = new LineBuffer();
+
+			//Reading from the byte before the range up to its newline skips the row that belongs to the previous range,
+			//or just the previous row's newline if the range starts a row
+			if (start > 0) {
+				position += line.read(in);
+			}
+
+			while (position < end) {
+				int consumed = line.read(in);
+				if (consumed == 0) {
+					break;
+				}
+				position += consumed;
+
+				List<String> fields = splitCsv(line.toString());
+				if (fields.isEmpty() || "symbol".equalsIgnoreCase(fields.get(0))) {
+					continue;
+				}
+
+				boolean accepted = stockFile ? parseStock(fields, rows.stocks) : parsePayment(fields, payments);
+				(accepted ? rows.accepted : rows.rejected).increment();
+			}
+		}
+
+		payments.forEach((symbol, symbolPayments) -> rows.payments.merge(symbol, symbolPayments, (existing, added) -> {
+			existing.addAll(added);
+			return existing;
+		}));
+	}
+
+	private static boolean parsePayment(List<String> fields, Map<String, List<DividendPayment>> payments) {
+		if (fields.size() != 3 || fields.get(0).isEmpty()) {
+			return false;
+		}
+
+		try {
+			DividendPayment payment = new DividendPayment(LocalDate.parse(fields.get(1)), Amount.parse(fields.get(2)));
+			payments.computeIfAbsent(fields.get(0).toUpperCase(), symbol -> new ArrayList<>()).add(payment);
+			return true;
+		}
+		catch (RuntimeException e) {
+			return false;
+		}
+	}
+
+	private static boolean parseStock(List<String> fields, ConcurrentMap<String, StockData> stocks) {
+		if (fields.size() < 2 || fields.get(0).isEmpty()) {
+			return false;
+		}
+
+		StockData stockData = new StockData();
+		stockData.setSymbol(fields.get(0).toUpperCase());
+		stockData.setName(emptyToNull(fields.get(1)));
+		stockData.setExchange(fields.size() > 2 ? emptyToNull(fields.get(2)) : null);
+		stockData.setSector(fields.size() > 3 ? emptyToNull(fields.get(3)) : null);
+		stockData.setIndustry(fields.size() > 4 ? emptyToNull(fields.get(4)) : null);
+		stocks.put(stockData.getSymbol(), stockData);
+
+		return true;
+	}
+
+	/**
+	 * Caches each symbol's imported payments merged with its cached history.  Imports are not client reads, so
+	 * symbols nobody asks for are not kept refreshed from upstream.
+	 */
+	private int cacheHistories(Map<String, List<DividendPayment>> payments) {
+		payments.forEach((symbol, imported) -> {
+			importedDividends.add(symbol, imported);
+
+			DividendHistory cached = cacheView.get(StockCacheView.DIVIDEND_HISTORY, symbol, DividendHistory.class);
+			cacheView.putUnread(StockCacheView.DIVIDEND_HISTORY, symbol,
+					ResponseEntity.status(HttpStatus.OK).body(importedDividends.merge(symbol, cached)));
+		});
+
+		return payments.size();
+	}
+
+	private int cacheStocks(Map<String, StockData> stocks) {
+		stocks.forEach((symbol, stockData) ->
+				cacheView.putUnread(StockCacheView.STOCK_DATA, symbol, ResponseEntity.status(HttpStatus.OK).body(stockData)));
+
+		return stocks.size();
+	}
+
+	private ExecutorService newExecutor() {
+		AtomicInteger threadCount = new AtomicInteger();
+
+		return Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "csv-import-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Splits a CSV row, allowing double quoted fields containing commas and "" for a quote.
+	 */
+	static List<String> splitCsv(String line) {
+		List<String> fields = new ArrayList<>();
+		if (line.trim().isEmpty()) {
+			return fields;
+		}
+
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				}
+				else if (c == '"') {
+					quoted = false;
+				}
+				else {
+					field.append(c);
+				}
+			}
+			else if (c == '"') {
+				quoted = true;
+			}
+			else if (c == ',') {
+				fields.add(field.toString().trim());
+				field.setLength(0);
+			}
+			else {
+				field.append(c);
+			}
+		}
+
+		fields.add(field.toString().trim());
+		return fields;
+	}
+
+	private static String emptyToNull(String value) {
+		return value.isEmpty() ? null : value;
+	}
+
+	/**
+	 * Everything parsed so far, shared by the chunk parsers.
+	 */
+	private static final class Rows {
+		final ConcurrentMap<String, List<DividendPayment>> payments = new ConcurrentHashMap<>();
+		final ConcurrentMap<String, StockData> stocks = new ConcurrentHashMap<>();
+		final LongAdder accepted = new LongAdder();
+		final LongAdder rejected = new LongAdder();
+	}
+
+	/**
+	 * Reusable buffer for reading one line of bytes at a time.
+	 */
+	private static final class LineBuffer {
+		byte[] bytes = new byte[256];
+		int length;
+
+		/**
+		 * Reads up to and including the next newline.
+		 *
+		 * @return number of bytes consumed, 0 at the end of the stream
+		 */
+		int read(InputStream in) throws IOException {
+			length = 0;
+			int consumed = 0;
+			int b;
+
+			while ((b = in.read()) != -1) {
+				consumed++;
+
+				if (b == '\n') {
+					break;
+				}
+
+				if (length == bytes.length) {
+					bytes = Arrays.copyOf(bytes, length * 2);
+				}
+				bytes[length++] = (byte) b;
+			}
+
+			return consumed;
+		}
+
+		@Override
+		public String toString() {
+			int end = length > 0 && bytes[length - 1] == '\r' ? length - 1 : length;
+			return new String(bytes, 0, end, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -1,12 +1,15 @@
 package service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
 import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
@@ -17,6 +20,7 @@ import com.gargoylesoftware.htmlunit.html.HtmlSpan;
 import com.gargoylesoftware.htmlunit.html.HtmlTable;
 import com.gargoylesoftware.htmlunit.html.HtmlTableRow;
 
+import service.models.Amount;
 import service.models.DividendData;
 import service.models.DividendHistory;
 import service.models.FundamentalData;
@@ -38,55 +42,35 @@ public class HTMLUnitDataSource {
 	private static final DateTimeFormatter MDYCommaFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
 	private static final Logger log = LoggerFactory.getLogger(HTMLUnitDataSource.class);
 	
+	@Autowired
+	private UpstreamPageFetcher pageFetcher;
+	
     /**
      * Uses HTMLUnit to pull data from Dividata.com
      * @param symbol
      * @return
      */
     public StockData createStockData(String symbol) {
-    	WebClient webClient = createWebClient();
+    	HtmlPage page = null;
     	
     	try {
 	    	if (symbol != null && symbol.trim() != "") {
-	    		HtmlPage page = webClient.getPage(DIVIDATA_URL.concat(symbol));
+	    		page = fetch(DIVIDATA_URL.concat(symbol), symbol);
 	    		
 	    		if (page != null)
 	    		{
-	    			StockData stockData = new StockData();
-	    			stockData.setSymbol(symbol);
-	    			
-	    			HtmlSpan span = page.getFirstByXPath("//li[text()='Sector']/span");
-		    		if (span != null) {
-			    		stockData.setSector(span.getTextContent());
-		    		}
-		    		
-		    		span = page.getFirstByXPath("//li[text()='Industry']/span");
-		    		if (span != null) {
-			    		stockData.setIndustry(span.getTextContent());
-		    		}
-		    		
-		    		span = page.getFirstByXPath("//li[text()=' Exchange']/span");
-		    		if (span != null) {
-		    			stockData.setExchange(span.getTextContent());
-		    		}
-		    		
-		    		HtmlElement h2 = page.getFirstByXPath("//h2");
-		    		if (h2 != null) {
-		    			stockData.setName(h2.getTextContent());
-		    		}
-		    		
-		    		return stockData;
+	    			return parseStockData(page, symbol);
 	    		}
 	    	}
     	}
-    	catch (FailingHttpStatusCodeException e ) {
-    		return null;
+    	catch (UpstreamUnavailableException e) {
+    		throw e;
     	}
     	catch (Exception e) {
-    		log.debug("exception:"+e.toString());
+    		log.warn("Could not read page for " + symbol + ", exception:" + e.toString());
     	}
     	finally {
-    		webClient.close();
+    		closePage(page);
     	}
     	
     	return null;
@@ -98,66 +82,26 @@ public class HTMLUnitDataSource {
      * @return
      */
     public DividendData createDividendData(String symbol) {
-    	WebClient webClient = createWebClient();
+    	HtmlPage page = null;
     	
     	try {
 	    	if (symbol != null && symbol.trim() != "") {
-	    		HtmlPage page = webClient.getPage(DIVIDATA_URL.concat(symbol));
+	    		page = fetch(DIVIDATA_URL.concat(symbol), symbol);
 	    		
 	    		if (page != null)
 	    		{
-	    			DividendData dividendData = new DividendData();
-	    			
-	    			HtmlSpan span = page.getFirstByXPath("//li/abbr[text()='52 Week Dividend']/following-sibling::span");
-		    		if (span != null) {
-		    			BigDecimal dividend = new BigDecimal(span.getTextContent().replace("$", ""));
-		    			dividendData.setEstimatedForwardAnnualDividend(dividend);
-		    			
-		    			//The yield % currently reported on Dividata is off by 100x and lacks the precision to scale it up,
-		    			//so will calculate yield value ourselves
-		    			span = page.getFirstByXPath("//li[text()=' Last Close']/span");
-			    		if (span != null) {
-				    		BigDecimal price = new BigDecimal(span.getTextContent().replace("$", ""));
-				    		BigDecimal yield = dividend.scaleByPowerOfTen(2).divide(price, 2, RoundingMode.HALF_EVEN);
-				    		
-				    		dividendData.setEstimatedForwardAnnualYield(yield);
-			    		}
-		    		}
-		    		
-		    		span = page.getFirstByXPath("//li/abbr[text()='Last Dividend']/following-sibling::span");
-		    		if (span != null) {
-		    			dividendData.setLastDividend(new BigDecimal(span.getTextContent().replace("$", "")));
-		    		}
-		    		
-		    		span = page.getFirstByXPath("//li/abbr[text()='Last Ex-Dividend Date']/following-sibling::span");
-		    		if (span != null) {
-		    			dividendData.setLastExDividendDate((LocalDate.parse(span.getTextContent(), MDYFormatter)));
-		    		}
-		    		
-		    		span = page.getFirstByXPath("//li/abbr[text()='Pay Date']/following-sibling::span");
-		    		if (span != null) {
-		    			dividendData.setLastPayDate((LocalDate.parse(span.getTextContent(), MDYFormatter)));
-		    		}
-		    		
-		    		span = page.getFirstByXPath("//li/abbr[text()='Years Paying']/following-sibling::span");
-		    		if (span != null) {
-		    			if (!span.getTextContent().equalsIgnoreCase("N/A")) {
-		    				dividendData.setYearsPaying(new Integer(span.getTextContent()));
-		    			}
-		    		}
-		    		
-		    		return dividendData;
+	    			return parseDividendData(page);
 	    		}
 	    	}
     	}
-    	catch (FailingHttpStatusCodeException e ) {
-    		return null;
+    	catch (UpstreamUnavailableException e) {
+    		throw e;
     	}
     	catch (Exception e) {
-    		log.debug("exception:"+e.toString());
+    		log.warn("Could not read page for " + symbol + ", exception:" + e.toString());
     	}
     	finally {
-    		webClient.close();
+    		closePage(page);
     	}
     	
     	return null;
@@ -169,11 +113,11 @@ public class HTMLUnitDataSource {
      * @return
      */
     public DividendHistory createDividendHistory(String symbol) {
-    	WebClient webClient = createWebClient();
+    	HtmlPage page = null;
     	
     	try {
 	    	if (symbol != null && symbol.trim() != "") {
-	    		HtmlPage page = webClient.getPage(DIVIDATA_URL.concat(symbol).concat("/dividend"));
+	    		page = fetch(DIVIDATA_URL.concat(symbol).concat("/dividend"), symbol);
 	    		
 	    		if (page != null)
 	    		{
@@ -186,7 +130,7 @@ public class HTMLUnitDataSource {
 	    				if (!header) {
 	    					dividendHistory.addDividendPayment(
 	    							LocalDate.parse(row.getCell(0).getTextContent(), MDYCommaFormatter), 
-	    							new BigDecimal(row.getCell(1).getTextContent().replace("$", "")));
+	    							Amount.parse(row.getCell(1).getTextContent()));
 	    				}
 	    				else {
 	    					header = false;
@@ -197,14 +141,14 @@ public class HTMLUnitDataSource {
 	    		}
 	    	}
 		}
-    	catch (FailingHttpStatusCodeException e ) {
-    		return null;
+    	catch (UpstreamUnavailableException e) {
+    		throw e;
     	}
 		catch (Exception e) {
-			log.debug("exception:"+e.toString());
+			log.warn("Could not read page for " + symbol + ", exception:" + e.toString());
 		}
 		finally {
-			webClient.close();
+			closePage(page);
 		}
     	
     	return null;
@@ -216,62 +160,256 @@ public class HTMLUnitDataSource {
      * @return
      */
     public FundamentalData createFundamentalData(String symbol) {
-    	WebClient webClient = createWebClient();
+    	HtmlPage page = null;
     	
     	try {
 	    	if (symbol != null && symbol.trim() != "") {
-	    		HtmlPage page = webClient.getPage(DIVIDATA_URL.concat(symbol));
+	    		page = fetch(DIVIDATA_URL.concat(symbol), symbol);
 	    		
 	    		if (page != null)
 	    		{
-	    			FundamentalData fundamentalData = new FundamentalData();
-	    			
-	    			HtmlSpan span = page.getFirstByXPath("//li[text()=' Last Close']/span");
-		    		if (span != null) {
-			    		fundamentalData.setLastClose(new BigDecimal(span.getTextContent().replace("$", "")));
-		    		}
-		    		
-	    			span = page.getFirstByXPath("//li[text()=' Last Open']/span");
-		    		if (span != null) {
-			    		fundamentalData.setLastOpen(new BigDecimal(span.getTextContent().replace("$", "")));
-		    		}
-	    			
-	    			span = page.getFirstByXPath("//li[text()=' P/E Ratio']/span");
-		    		if (span != null) {
-			    		fundamentalData.setPeRatio(new BigDecimal(span.getTextContent()));
-		    		}
-		    		
-	    			span = page.getFirstByXPath("//li[text()=' Volume']/span");
-		    		if (span != null) {
-			    		fundamentalData.setVolume(new Double(span.getTextContent().replaceAll(",", "")));
-		    		}
-		    		
-		    		return fundamentalData;
+	    			return parseFundamentalData(page);
 	    		}
 	    	}
 		}
-    	catch (FailingHttpStatusCodeException e ) {
-    		return null;
+    	catch (UpstreamUnavailableException e) {
+    		throw e;
     	}
 		catch (Exception e) {
-			log.debug("exception:"+e.toString());
+			log.warn("Could not read page for " + symbol + ", exception:" + e.toString());
 		}
 		finally {
-			webClient.close();
+			closePage(page);
 		}
     	
     	return null;
     }
     
     /**
-     * Create an HTMLUnit WebClient with scripting disabled to increase performance
+     * Fetches the stock's main page once and reads the stock data, dividend data and fundamentals from it.
+     * Each part is read separately, so a part that cannot be parsed is left null without losing the others.
+     * @param symbol
+     * @return null if the page could not be fetched
+     */
+    public StockPage createStockPage(String symbol) {
+    	HtmlPage page = null;
+    	
+    	try {
+	    	if (symbol != null && symbol.trim() != "") {
+	    		page = fetch(DIVIDATA_URL.concat(symbol), symbol);
+	    		
+	    		if (page != null)
+	    		{
+	    			HtmlPage fetched = page;
+	    			StockPage stockPage = new StockPage();
+	    			stockPage.stockData = parsePart(symbol, () -> parseStockData(fetched, symbol));
+	    			stockPage.dividendData = parsePart(symbol, () -> parseDividendData(fetched));
+	    			stockPage.fundamentalData = parsePart(symbol, () -> parseFundamentalData(fetched));
+	    			
+	    			return stockPage;
+	    		}
+	    	}
+    	}
+    	catch (UpstreamUnavailableException e) {
+    		throw e;
+    	}
+    	catch (Exception e) {
+    		log.warn("Could not read page for " + symbol + ", exception:" + e.toString());
+    	}
+    	finally {
+    		closePage(page);
+    	}
+    	
+    	return null;
+    }
+    
+    /**
+     * Fetches the page through the fetcher.  A 404 means upstream has no such stock and gives null, any other
+     * failure means upstream could not answer and is thrown, so it is never cached as not found.
+     * @param url
+     * @param symbol
+     * @return the page, or null if upstream has no page for the symbol
+     * @throws UpstreamUnavailableException if upstream failed or did not answer within the latency budget
+     */
+    private HtmlPage fetch(String url, String symbol) {
+    	try {
+    		return pageFetcher.getPage(url, this::createWebClient);
+    	}
+    	catch (FailingHttpStatusCodeException e) {
+    		if (e.getStatusCode() == HttpStatus.NOT_FOUND.value()) {
+    			return null;
+    		}
+    		throw new UpstreamUnavailableException("Upstream request for " + symbol + " failed", e, false);
+    	}
+    	catch (TimeoutException e) {
+    		throw new UpstreamUnavailableException("Upstream request for " + symbol + " timed out", e, true);
+    	}
+    	catch (InterruptedException e) {
+    		Thread.currentThread().interrupt();
+    		throw new UpstreamUnavailableException("Upstream request for " + symbol + " was interrupted", e, false);
+    	}
+    	catch (Exception e) {
+    		throw new UpstreamUnavailableException("Upstream request for " + symbol + " failed", e, false);
+    	}
+    }
+    
+    /**
+     * Create an HTMLUnit WebClient with scripting disabled to increase performance.
+     * A single request may not outlive the fetcher's latency budget.
      * @return
      */
     public WebClient createWebClient() {
     	WebClient webClient = new WebClient();
     	webClient.getOptions().setCssEnabled(false);
     	webClient.getOptions().setJavaScriptEnabled(false);
+    	webClient.getOptions().setTimeout((int) pageFetcher.getBudgetMillis());
     	
     	return webClient;
     }
+    
+    /**
+     * Metrics about upstream requests, including retries and hedged requests
+     * @return
+     */
+    public UpstreamMetrics getUpstreamMetrics() {
+    	return pageFetcher.getMetrics();
+    }
+    
+    private StockData parseStockData(HtmlPage page, String symbol) {
+    	StockData stockData = new StockData();
+    	stockData.setSymbol(symbol);
+    	
+    	HtmlSpan span = page.getFirstByXPath("//li[text()='Sector']/span");
+    	if (span != null) {
+    		stockData.setSector(span.getTextContent());
+    	}
+    	
+    	span = page.getFirstByXPath("//li[text()='Industry']/span");
+    	if (span != null) {
+    		stockData.setIndustry(span.getTextContent());
+    	}
+    	
+    	span = page.getFirstByXPath("//li[text()=' Exchange']/span");
+    	if (span != null) {
+    		stockData.setExchange(span.getTextContent());
+    	}
+    	
+    	HtmlElement h2 = page.getFirstByXPath("//h2");
+    	if (h2 != null) {
+    		stockData.setName(h2.getTextContent());
+    	}
+    	
+    	return stockData;
+    }
+    
+    private DividendData parseDividendData(HtmlPage page) {
+    	DividendData dividendData = new DividendData();
+    	
+    	HtmlSpan span = page.getFirstByXPath("//li/abbr[text()='52 Week Dividend']/following-sibling::span");
+    	if (span != null) {
+    		Amount dividend = Amount.parse(span.getTextContent());
+    		dividendData.setEstimatedForwardAnnualDividendAmount(dividend);
+    		
+    		//The yield % currently reported on Dividata is off by 100x and lacks the precision to scale it up,
+    		//so will calculate yield value ourselves
+    		span = page.getFirstByXPath("//li[text()=' Last Close']/span");
+    		if (span != null) {
+    			Amount price = Amount.parse(span.getTextContent());
+    			
+    			dividendData.setEstimatedForwardAnnualYieldAmount(dividend.percentOf(price, 2));
+    		}
+    	}
+    	
+    	span = page.getFirstByXPath("//li/abbr[text()='Last Dividend']/following-sibling::span");
+    	if (span != null) {
+    		dividendData.setLastDividendAmount(Amount.parse(span.getTextContent()));
+    	}
+    	
+    	span = page.getFirstByXPath("//li/abbr[text()='Last Ex-Dividend Date']/following-sibling::span");
+    	if (span != null) {
+    		dividendData.setLastExDividendDate((LocalDate.parse(span.getTextContent(), MDYFormatter)));
+    	}
+    	
+    	span = page.getFirstByXPath("//li/abbr[text()='Pay Date']/following-sibling::span");
+    	if (span != null) {
+    		dividendData.setLastPayDate((LocalDate.parse(span.getTextContent(), MDYFormatter)));
+    	}
+    	
+    	span = page.getFirstByXPath("//li/abbr[text()='Years Paying']/following-sibling::span");
+    	if (span != null) {
+    		if (!span.getTextContent().equalsIgnoreCase("N/A")) {
+    			dividendData.setYearsPaying(Integer.parseInt(span.getTextContent().trim()));
+    		}
+    	}
+    	
+    	return dividendData;
+    }
+    
+    private FundamentalData parseFundamentalData(HtmlPage page) {
+    	FundamentalData fundamentalData = new FundamentalData();
+    	
+    	HtmlSpan span = page.getFirstByXPath("//li[text()=' Last Close']/span");
+    	if (span != null) {
+    		fundamentalData.setLastCloseAmount(Amount.parse(span.getTextContent()));
+    		fundamentalData.setCloseDate(LastCloseSnapshots.lastSession(ZonedDateTime.now(LastCloseSnapshots.MARKET_ZONE)));
+    	}
+    	
+    	span = page.getFirstByXPath("//li[text()=' Last Open']/span");
+    	if (span != null) {
+    		fundamentalData.setLastOpenAmount(Amount.parse(span.getTextContent()));
+    	}
+    	
+    	span = page.getFirstByXPath("//li[text()=' P/E Ratio']/span");
+    	if (span != null) {
+    		fundamentalData.setPeRatioAmount(Amount.parse(span.getTextContent()));
+    	}
+    	
+    	span = page.getFirstByXPath("//li[text()=' Volume']/span");
+    	if (span != null) {
+    		fundamentalData.setVolume(Double.parseDouble(span.getTextContent().replace(",", "")));
+    	}
+    	
+    	return fundamentalData;
+    }
+    
+    private <T> T parsePart(String symbol, Callable<T> parser) {
+    	try {
+    		return parser.call();
+    	}
+    	catch (Exception e) {
+    		log.warn("Could not parse page for " + symbol + ", exception:" + e.toString());
+    		return null;
+    	}
+    }
+    
+    /**
+     * Closes the WebClient that fetched the page, if there is one
+     * @param page
+     */
+    private void closePage(HtmlPage page) {
+    	if (page != null) {
+    		page.getWebClient().close();
+    	}
+    }
+    
+    /**
+     * The parts of the service's data that come from a stock's main page.
+     */
+    public static class StockPage {
+    	private StockData stockData;
+    	private DividendData dividendData;
+    	private FundamentalData fundamentalData;
+    	
+    	public StockData getStockData() {
+    		return stockData;
+    	}
+    	
+    	public DividendData getDividendData() {
+    		return dividendData;
+    	}
+    	
+    	public FundamentalData getFundamentalData() {
+    		return fundamentalData;
+    	}
+    }
 }
@@ -0,0 +1,123 @@
+package service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import service.models.Amount;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+
+/**
+ * Dividend payments loaded by the DividendCsvImporter, kept apart from the caches so they outlive eviction and are
+ * never replaced by a scrape.  Every history loaded from upstream is merged with them, and a symbol with imported
+ * payments is served from them on a cache miss instead of being scraped.
+ *
+ * Each symbol's payments are held as sorted arrays of epoch days, unscaled amounts and scales, as an import can
+ * hold decades of payments for thousands of symbols.
+ */
+@Component
+public class ImportedDividends {
+	private final ConcurrentMap<String, Payments> payments = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds the payments to the symbol's, replacing any imported earlier for the same date.
+	 *
+	 * @param symbol
+	 * @param imported
+	 */
+	public void add(String symbol, List<DividendPayment> imported) {
+		payments.compute(symbol.toUpperCase(), (key, current) -> {
+			Map<LocalDate, Amount> byDate = current != null ? current.byDate() : new TreeMap<>();
+			imported.forEach(payment -> byDate.put(payment.getDate(), payment.getDividendAmount()));
+
+			return new Payments(byDate);
+		});
+	}
+
+	public boolean contains(String symbol) {
+		return payments.containsKey(symbol.toUpperCase());
+	}
+
+	/**
+	 * Calls the action with every symbol that has imported payments.
+	 */
+	public void forEachSymbol(Consumer<String> action) {
+		payments.keySet().forEach(action);
+	}
+
+	public int getSymbolCount() {
+		return payments.size();
+	}
+
+	/**
+	 * A new history holding the given history's payments and the symbol's imported ones, keeping the given history's
+	 * amount for a date in both.
+	 *
+	 * @param symbol
+	 * @param history the scraped or cached history, or null
+	 * @return the merged history, or the given history if nothing was imported for the symbol
+	 */
+	public DividendHistory merge(String symbol, DividendHistory history) {
+		Payments imported = payments.get(symbol.toUpperCase());
+
+		if (imported == null) {
+			return history;
+		}
+
+		Map<LocalDate, Amount> byDate = imported.byDate();
+		if (history != null) {
+			history.getDividends().forEach(payment -> byDate.put(payment.getDate(), payment.getDividendAmount()));
+		}
+
+		DividendHistory merged = new DividendHistory();
+		byDate.forEach(merged::addDividendPayment);
+
+		return merged;
+	}
+
+	/**
+	 * One symbol's payments in date order.  Immutable, changes replace the whole instance.
+	 */
+	private static final class Payments {
+		//Scale marking a payment imported without an amount
+		static final int NO_AMOUNT = Integer.MIN_VALUE;
+
+		final int[] days;
+		final long[] unscaled;
+		final int[] scales;
+
+		Payments(Map<LocalDate, Amount> byDate) {
+			days = new int[byDate.size()];
+			unscaled = new long[byDate.size()];
+			scales = new int[byDate.size()];
+			int i = 0;
+
+			for (Map.Entry<LocalDate, Amount> payment : byDate.entrySet()) {
+				days[i] = (int) payment.getKey().toEpochDay();
+				unscaled[i] = payment.getValue() != null ? payment.getValue().getUnscaled() : 0;
+				scales[i] = payment.getValue() != null ? payment.getValue().getScale() : NO_AMOUNT;
+				i++;
+			}
+		}
+
+		/**
+		 * The payments as a sorted map that can be changed, null amounts are kept as null.
+		 */
+		Map<LocalDate, Amount> byDate() {
+			Map<LocalDate, Amount> byDate = new TreeMap<>();
+
+			for (int i = 0; i < days.length; i++) {
+				byDate.put(LocalDate.ofEpochDay(days[i]), scales[i] != NO_AMOUNT ? Amount.of(unscaled[i], scales[i]) : null);
+			}
+
+			return byDate;
+		}
+	}
+}
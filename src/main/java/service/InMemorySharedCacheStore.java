@@ -0,0 +1,75 @@
+package service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * In-process stand in for the shared store, for tests and single instance runs.
+ * Behaves like the Redis store, including expiry and leases, but is only shared between caches in the same JVM.
+ */
+public class InMemorySharedCacheStore implements SharedCacheStore {
+	private final ConcurrentMap<String, Entry> values = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Entry> leases = new ConcurrentHashMap<>();
+
+	@Override
+	public byte[] get(String key) {
+		Entry entry = values.get(key);
+
+		if (entry == null || entry.isExpired()) {
+			return null;
+		}
+
+		return (byte[]) entry.value;
+	}
+
+	@Override
+	public void put(String key, byte[] value, long ttlMillis) {
+		values.put(key, new Entry(value, ttlMillis));
+	}
+
+	@Override
+	public void delete(String key) {
+		values.remove(key);
+	}
+
+	@Override
+	public void deleteByPrefix(String prefix) {
+		values.keySet().removeIf(key -> key.startsWith(prefix));
+	}
+
+	@Override
+	public void forEachKey(String prefix, Consumer<String> action) {
+		values.forEach((key, entry) -> {
+			if (key.startsWith(prefix) && !entry.isExpired()) {
+				action.accept(key);
+			}
+		});
+	}
+
+	@Override
+	public boolean tryLease(String key, String owner, long leaseMillis) {
+		Entry lease = new Entry(owner, leaseMillis);
+
+		return leases.merge(key, lease, (current, requested) -> current.isExpired() ? requested : current) == lease;
+	}
+
+	@Override
+	public void releaseLease(String key, String owner) {
+		leases.computeIfPresent(key, (k, lease) -> owner.equals(lease.value) ? null : lease);
+	}
+
+	private static final class Entry {
+		final Object value;
+		final long expiresAt;
+
+		Entry(Object value, long ttlMillis) {
+			this.value = value;
+			this.expiresAt = System.currentTimeMillis() + ttlMillis;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() >= expiresAt;
+		}
+	}
+}
@@ -0,0 +1,289 @@
+package service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import service.models.Amount;
+import service.models.FundamentalData;
+
+/**
+ * Daily series of each symbol's last close, recorded whenever fundamentals are cached, under the trading day the
+ * close belongs to.  The close date travels with fundamentals through the shared cache tier, so every instance
+ * records the same closes whichever of them fetched it.
+ *
+ * Each symbol has an append-only file under snapshots.dir of fixed 13 byte records: the epoch day as an int, the
+ * close's unscaled value as a long and its scale as a byte.  Records are in date order, so a date range is found
+ * with a binary search on the record dates and then read forwards.  A second close on the same day overwrites that
+ * day's record in place rather than adding another, and readers ignore a partial record at the end of the file.
+ *
+ * Writes are queued to a single thread, so cache writes never wait on the disk and each file has one writer.
+ */
+@Component
+public class LastCloseSnapshots implements CacheEntryListener {
+	static final int RECORD_SIZE = Integer.BYTES + Long.BYTES + Byte.BYTES;
+	public static final ZoneId MARKET_ZONE = ZoneId.of("America/New_York");
+	private static final LocalTime MARKET_CLOSE = LocalTime.of(16, 0);
+	private static final int READ_BATCH = 256;
+	private static final String SUFFIX = ".close";
+	//Symbols become file names, so anything else is not recorded
+	private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.\\-]{1,16}");
+	private static final Logger log = LoggerFactory.getLogger(LastCloseSnapshots.class);
+
+	private final Path dir;
+	private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "close-snapshots");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	public LastCloseSnapshots(@Value("${snapshots.dir:data/snapshots}") String dir) {
+		this.dir = dir.isEmpty() ? null : Paths.get(dir);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		//Let queued snapshots finish writing
+		writer.shutdown();
+	}
+
+	@Override
+	public void entryPut(String cacheName, Object key, Object previousValue, Object value) {
+		if (dir != null && StockCacheView.FUNDAMENTAL_DATA.equals(cacheName) && value instanceof FundamentalData) {
+			Amount close = ((FundamentalData) value).getLastCloseAmount();
+			LocalDate closeDate = ((FundamentalData) value).getCloseDate();
+
+			if (close != null && closeDate != null) {
+				String symbol = key.toString();
+
+				writer.execute(() -> {
+					try {
+						record(symbol, closeDate, close);
+					}
+					catch (IOException | RuntimeException e) {
+						log.warn("Could not record the last close of " + symbol + ", exception:" + e.toString());
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * The trading day whose close is the last one at the given market time: today once the market has closed on a
+	 * weekday, otherwise the weekday before.  Exchange holidays are not known, so a close read on one is recorded
+	 * again under the holiday.
+	 *
+	 * @param now the time in MARKET_ZONE
+	 */
+	public static LocalDate lastSession(ZonedDateTime now) {
+		LocalDate day = now.toLocalTime().isBefore(MARKET_CLOSE) ? now.toLocalDate().minusDays(1) : now.toLocalDate();
+
+		while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+			day = day.minusDays(1);
+		}
+
+		return day;
+	}
+
+	/**
+	 * Records the symbol's close for the date, replacing the last record if it is for the same date.
+	 * Dates before the last record are ignored, to keep the file in date order.
+	 *
+	 * @return true if the close was written
+	 * @throws IllegalArgumentException if the close's scale does not fit the record's byte
+	 */
+	public boolean record(String symbol, LocalDate date, Amount close) throws IOException {
+		if (close.getScale() < Byte.MIN_VALUE || close.getScale() > Byte.MAX_VALUE) {
+			throw new IllegalArgumentException("Close scale out of range:" + close.getScale());
+		}
+
+		Path file = file(symbol);
+		if (file == null) {
+			return false;
+		}
+
+		Files.createDirectories(dir);
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long size = channel.size();
+			long records = size / RECORD_SIZE;
+			long position = records * RECORD_SIZE;
+			int day = (int) date.toEpochDay();
+
+			if (records > 0) {
+				int lastDay = readDay(channel, records - 1);
+
+				if (day < lastDay) {
+					return false;
+				}
+				if (day == lastDay) {
+					position -= RECORD_SIZE;
+				}
+			}
+
+			//Drops a partial record left by an interrupted write, complete records are only ever overwritten in place
+			//so a concurrent read never sees the file shrink under it
+			if (size > records * RECORD_SIZE) {
+				channel.truncate(records * RECORD_SIZE);
+			}
+
+			ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+			record.putInt(day).putLong(close.getUnscaled()).put((byte) close.getScale()).flip();
+			writeFully(channel, record, position);
+
+			return true;
+		}
+	}
+
+	/**
+	 * The symbol's closes from the from date to the to date inclusive, oldest first.
+	 *
+	 * @param symbol
+	 * @param from
+	 * @param to
+	 */
+	public List<Snapshot> read(String symbol, LocalDate from, LocalDate to) throws IOException {
+		Path file = file(symbol);
+		if (file == null || from.isAfter(to)) {
+			return Collections.emptyList();
+		}
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long records = channel.size() / RECORD_SIZE;
+			long toDay = to.toEpochDay();
+			List<Snapshot> snapshots = new ArrayList<>();
+			ByteBuffer batch = ByteBuffer.allocate(READ_BATCH * RECORD_SIZE);
+
+			for (long index = firstOnOrAfter(channel, records, from.toEpochDay()); index < records; ) {
+				int count = (int) Math.min(READ_BATCH, records - index);
+				batch.clear().limit(count * RECORD_SIZE);
+				if (!readFully(channel, batch, index * RECORD_SIZE)) {
+					//The file was cut back to its last whole record while being read
+					count = batch.position() / RECORD_SIZE;
+					records = index + count;
+				}
+				batch.flip();
+
+				for (int i = 0; i < count; i++) {
+					int day = batch.getInt();
+					long unscaled = batch.getLong();
+					int scale = batch.get();
+
+					if (day > toDay) {
+						return snapshots;
+					}
+
+					snapshots.add(new Snapshot(LocalDate.ofEpochDay(day), Amount.of(unscaled, scale)));
+				}
+
+				index += count;
+			}
+
+			return snapshots;
+		}
+		catch (NoSuchFileException e) {
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * Binary search for the index of the first record on or after the day, or the record count if there is none.
+	 */
+	private static long firstOnOrAfter(FileChannel channel, long records, long day) throws IOException {
+		long low = 0;
+		long high = records;
+
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+
+			if (readDay(channel, middle) < day) {
+				low = middle + 1;
+			}
+			else {
+				high = middle;
+			}
+		}
+
+		return low;
+	}
+
+	private static int readDay(FileChannel channel, long index) throws IOException {
+		ByteBuffer day = ByteBuffer.allocate(Integer.BYTES);
+
+		//A record cut off while searching sorts after every day
+		return readFully(channel, day, index * RECORD_SIZE) ? day.getInt(0) : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Fills the buffer from the position, or as much of it as there is.
+	 *
+	 * @return false if the file ended first
+	 */
+	private static boolean readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		int start = buffer.position();
+
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position() - start) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer, position + buffer.position());
+		}
+	}
+
+	private Path file(String symbol) {
+		String key = symbol.toUpperCase();
+
+		return dir != null && SYMBOL.matcher(key).matches() ? dir.resolve(key + SUFFIX) : null;
+	}
+
+	/**
+	 * A symbol's last close on a date.
+	 */
+	public static class Snapshot {
+		private final LocalDate date;
+		private final Amount close;
+
+		public Snapshot(LocalDate date, Amount close) {
+			this.date = date;
+			this.close = close;
+		}
+
+		public LocalDate getDate() {
+			return date;
+		}
+
+		public Amount getClose() {
+			return close;
+		}
+	}
+}
@@ -0,0 +1,294 @@
+package service;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Cache decorator that tells the registered listeners about every put, evict and clear.
+ *
+ * The controller caches whole ResponseEntities, so listeners are handed the response body instead.
+ * It also records when each entry was last written and read, for deciding what to refresh, and hit/miss counts.
+ * Concurrent loads of the same missing key are coalesced here, outside the underlying map's locks.
+ */
+public class ObservedCache implements Cache {
+	private static final Logger log = LoggerFactory.getLogger(ObservedCache.class);
+
+	private final Cache delegate;
+	private final List<CacheEntryListener> listeners;
+	private final ConcurrentMap<Object, EntryTimes> times = new ConcurrentHashMap<>();
+	private final ConcurrentMap<Object, CompletableFuture<Object>> loads = new ConcurrentHashMap<>();
+	private final CacheStatistics statistics = new CacheStatistics(times::size);
+
+	public ObservedCache(Cache delegate, List<CacheEntryListener> listeners) {
+		this.delegate = delegate;
+		this.listeners = listeners;
+	}
+
+	@Override
+	public String getName() {
+		return delegate.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return delegate.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper value = delegate.get(key);
+
+		if (value != null) {
+			accessed(key);
+		}
+		else {
+			statistics.recordMiss();
+		}
+
+		return value;
+	}
+
+	@Override
+	public <T> T get(Object key, Class<T> type) {
+		T value = delegate.get(key, type);
+
+		if (value != null) {
+			accessed(key);
+		}
+		else {
+			statistics.recordMiss();
+		}
+
+		return value;
+	}
+
+	/**
+	 * Loads a missing value once, however many threads ask for it at the same time.
+	 *
+	 * The load runs outside the underlying map, which for a ConcurrentMapCache would otherwise hold a lock shared
+	 * with other keys (and with puts and evicts of them) for as long as the upstream request takes.  Threads that
+	 * arrive while a load is in flight wait for its result, or its failure, instead of loading again.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper cached = delegate.get(key);
+		if (cached != null) {
+			accessed(key);
+			return (T) cached.get();
+		}
+
+		CompletableFuture<Object> load = new CompletableFuture<>();
+		CompletableFuture<Object> inFlight = loads.putIfAbsent(key, load);
+
+		if (inFlight != null) {
+			T value = (T) awaitLoad(key, valueLoader, inFlight);
+			accessed(key);
+			return value;
+		}
+
+		try {
+			//Another load may have finished between the first check and taking over the key
+			cached = delegate.get(key);
+			if (cached != null) {
+				accessed(key);
+				load.complete(cached.get());
+				return (T) cached.get();
+			}
+
+			T value;
+			try {
+				value = valueLoader.call();
+			}
+			catch (Exception e) {
+				ValueRetrievalException failure = new ValueRetrievalException(key, valueLoader, e);
+				load.completeExceptionally(failure);
+				throw failure;
+			}
+
+			delegate.put(key, value);
+			statistics.recordMiss();
+			written(key, true, false);
+			firePut(key, null, value);
+			load.complete(value);
+
+			return value;
+		}
+		catch (RuntimeException | Error e) {
+			load.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			loads.remove(key, load);
+		}
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		ValueWrapper previous = delegate.get(key);
+		delegate.put(key, value);
+		written(key, false, false);
+		firePut(key, previous, value);
+	}
+
+	/**
+	 * Writes the entry without it counting as read, for bulk loads no client asked for.  A new entry has never
+	 * been read, so it is left to go idle rather than being refreshed, and an existing one keeps its last read.
+	 */
+	public void putUnread(Object key, Object value) {
+		ValueWrapper previous = delegate.get(key);
+		delegate.put(key, value);
+		written(key, false, true);
+		firePut(key, previous, value);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existing = delegate.putIfAbsent(key, value);
+
+		if (existing == null) {
+			written(key, false, false);
+			firePut(key, null, value);
+		}
+
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		ValueWrapper previous = delegate.get(key);
+		delegate.evict(key);
+		times.remove(key);
+
+		if (previous != null) {
+			statistics.recordEviction();
+			String name = getName();
+			Object previousBody = body(previous.get());
+			notifyListeners(listener -> listener.entryEvicted(name, key, previousBody));
+		}
+	}
+
+	@Override
+	public void clear() {
+		delegate.clear();
+		times.clear();
+		statistics.recordClear();
+
+		String name = getName();
+		notifyListeners(listener -> listener.cacheCleared(name));
+	}
+
+	public CacheStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * When the entry was last written, in epoch millis, or 0 if it is not cached.
+	 */
+	public long getWrittenAt(Object key) {
+		EntryTimes entryTimes = times.get(key);
+		return entryTimes != null ? entryTimes.writtenAt : 0;
+	}
+
+	/**
+	 * When the entry was last read or written, in epoch millis, or 0 if it is not cached.
+	 */
+	public long getAccessedAt(Object key) {
+		EntryTimes entryTimes = times.get(key);
+		return entryTimes != null ? entryTimes.accessedAt : 0;
+	}
+
+	/**
+	 * Records a write.  Refreshes of an existing entry do not count as reads of it, and unread new entries have
+	 * no read time.
+	 */
+	private void written(Object key, boolean read, boolean unread) {
+		statistics.recordPut();
+		long now = System.currentTimeMillis();
+		EntryTimes entryTimes = times.computeIfAbsent(key, k -> new EntryTimes(now, unread ? 0 : now));
+		entryTimes.writtenAt = now;
+
+		if (read) {
+			entryTimes.accessedAt = now;
+		}
+	}
+
+	private Object awaitLoad(Object key, Callable<?> valueLoader, CompletableFuture<Object> load) {
+		try {
+			return load.get();
+		}
+		catch (ExecutionException e) {
+			//The loading thread's failure, already wrapped as the cache abstraction expects
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new ValueRetrievalException(key, valueLoader, e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for " + getName() + " to load " + key, e);
+		}
+	}
+
+	private void accessed(Object key) {
+		statistics.recordHit();
+		EntryTimes entryTimes = times.get(key);
+
+		if (entryTimes != null) {
+			entryTimes.accessedAt = System.currentTimeMillis();
+		}
+	}
+
+	private void firePut(Object key, ValueWrapper previous, Object value) {
+		String name = getName();
+		Object previousBody = previous != null ? body(previous.get()) : null;
+		Object valueBody = body(value);
+
+		notifyListeners(listener -> listener.entryPut(name, key, previousBody, valueBody));
+	}
+
+	private void notifyListeners(Consumer<CacheEntryListener> event) {
+		for (CacheEntryListener listener : listeners) {
+			try {
+				event.accept(listener);
+			}
+			catch (RuntimeException e) {
+				log.warn("Cache listener " + listener.getClass().getSimpleName() + " failed, exception:" + e.toString());
+			}
+		}
+	}
+
+	/**
+	 * The response body of a cached ResponseEntity, or the value itself if it is not a response.
+	 */
+	public static Object body(Object value) {
+		if (value instanceof ResponseEntity) {
+			return ((ResponseEntity<?>) value).getBody();
+		}
+
+		return value;
+	}
+
+	private static final class EntryTimes {
+		volatile long writtenAt;
+		volatile long accessedAt;
+
+		EntryTimes(long writtenAt, long accessedAt) {
+			this.writtenAt = writtenAt;
+			this.accessedAt = accessedAt;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.types.Expiration;
+
+/**
+ * SharedCacheStore on a Redis compatible server, configured with the usual spring.redis.* properties.
+ */
+public class RedisSharedCacheStore implements SharedCacheStore {
+	private static final String LEASE_SUFFIX = ":lease";
+	private static final int DELETE_BATCH = 500;
+	private static final int SCAN_BATCH = 500;
+
+	//Only delete the lease if it still belongs to the owner, it may have expired and been taken by another instance
+	private static final byte[] RELEASE_SCRIPT = ("if redis.call('get', KEYS[1]) == ARGV[1] then "
+			+ "return redis.call('del', KEYS[1]) else return 0 end").getBytes(StandardCharsets.UTF_8);
+
+	private final RedisConnectionFactory connectionFactory;
+
+	public RedisSharedCacheStore(RedisConnectionFactory connectionFactory) {
+		this.connectionFactory = connectionFactory;
+	}
+
+	@Override
+	public byte[] get(String key) {
+		return execute(connection -> connection.get(bytes(key)));
+	}
+
+	@Override
+	public void put(String key, byte[] value, long ttlMillis) {
+		execute(connection -> connection.pSetEx(bytes(key), ttlMillis, value));
+	}
+
+	@Override
+	public void delete(String key) {
+		execute(connection -> connection.del(bytes(key)));
+	}
+
+	@Override
+	public void deleteByPrefix(String prefix) {
+		execute(connection -> {
+			try (Cursor<byte[]> keys = connection.scan(ScanOptions.scanOptions().match(prefix + "*").count(DELETE_BATCH).build())) {
+				List<byte[]> batch = new ArrayList<>(DELETE_BATCH);
+
+				while (keys.hasNext()) {
+					batch.add(keys.next());
+
+					if (batch.size() == DELETE_BATCH) {
+						connection.del(batch.toArray(new byte[0][]));
+						batch.clear();
+					}
+				}
+
+				if (!batch.isEmpty()) {
+					connection.del(batch.toArray(new byte[0][]));
+				}
+
+				return null;
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("Could not close Redis scan", e);
+			}
+		});
+	}
+
+	@Override
+	public void forEachKey(String prefix, Consumer<String> action) {
+		execute(connection -> {
+			try (Cursor<byte[]> keys = connection.scan(ScanOptions.scanOptions().match(prefix + "*").count(SCAN_BATCH).build())) {
+				while (keys.hasNext()) {
+					String key = new String(keys.next(), StandardCharsets.UTF_8);
+
+					if (!key.endsWith(LEASE_SUFFIX)) {
+						action.accept(key);
+					}
+				}
+
+				return null;
+			}
+			catch (IOException e) {
+				throw new IllegalStateException("Could not close Redis scan", e);
+			}
+		});
+	}
+
+	@Override
+	public boolean tryLease(String key, String owner, long leaseMillis) {
+		Boolean leased = execute(connection -> connection.set(bytes(key + LEASE_SUFFIX), bytes(owner),
+				Expiration.milliseconds(leaseMillis), SetOption.SET_IF_ABSENT));
+
+		return Boolean.TRUE.equals(leased);
+	}
+
+	@Override
+	public void releaseLease(String key, String owner) {
+		execute(connection -> connection.eval(RELEASE_SCRIPT, ReturnType.INTEGER, 1, bytes(key + LEASE_SUFFIX), bytes(owner)));
+	}
+
+	private <T> T execute(Function<RedisConnection, T> action) {
+		RedisConnection connection = connectionFactory.getConnection();
+
+		try {
+			return action.apply(connection);
+		}
+		finally {
+			connection.close();
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.UTF_8);
+	}
+}
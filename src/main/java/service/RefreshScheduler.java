@@ -0,0 +1,283 @@
+package service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import service.models.DividendData;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+
+/**
+ * Keeps the cached symbols fresh, refreshing each part only as often as it can change instead of clearing
+ * everything daily.
+ *
+ * Each check, for every cached symbol:
+ * -Symbols no client has read for refresh.idle-days are evicted rather than refreshed.
+ * -Cached not found responses are evicted after a day, so the next request tries upstream again.
+ * -The main page (stock data, dividend data and fundamentals) is fetched once a day, for the last close and yield.
+ * -The dividend history is only fetched when the dividend data shows an ex-dividend date it does not have yet,
+ *  when today falls in the window around the next ex-dividend date predicted from the payment cadence, or once it
+ *  is refresh.max-age-days old.
+ */
+@Component
+public class RefreshScheduler {
+	static final int DEFAULT_CADENCE_DAYS = 91;
+	private static final int CADENCE_PAYMENTS = 12;
+	private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+	private static final Logger log = LoggerFactory.getLogger(RefreshScheduler.class);
+
+	@Autowired
+	private StockCacheView cacheView;
+
+	@Autowired
+	private CacheRefresher refresher;
+
+	private final ExecutorService executor;
+	private final int windowBeforeDays;
+	private final int windowAfterDays;
+	private final int maxAgeDays;
+	private final int idleDays;
+	private final int maxQueued;
+	//Requested refreshes queued or running, which sit in the executor's queue ahead of scheduled work
+	private final AtomicInteger queued = new AtomicInteger();
+
+	public RefreshScheduler(
+			@Value("${refresh.parallelism:4}") int parallelism,
+			@Value("${refresh.window-before-days:7}") int windowBeforeDays,
+			@Value("${refresh.window-after-days:7}") int windowAfterDays,
+			@Value("${refresh.max-age-days:14}") int maxAgeDays,
+			@Value("${refresh.idle-days:7}") int idleDays,
+			@Value("${refresh.max-queued:1000}") int maxQueued) {
+		this.windowBeforeDays = windowBeforeDays;
+		this.windowAfterDays = windowAfterDays;
+		this.maxAgeDays = maxAgeDays;
+		this.idleDays = idleDays;
+		this.maxQueued = maxQueued;
+
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Refreshes or evicts whatever is due, waiting for it to finish so checks never overlap.
+	 */
+	@Scheduled(fixedDelayString = "${refresh.check-ms:3600000}", initialDelayString = "${refresh.check-ms:3600000}")
+	public void refreshDue() {
+		LocalDate today = LocalDate.now();
+		long now = System.currentTimeMillis();
+		List<Future<Integer>> refreshes = new ArrayList<>();
+
+		cacheView.forEachSymbol(symbol -> refreshes.add(executor.submit(() -> refreshSymbol(symbol, today, now))));
+
+		int fetched = 0;
+		for (Future<Integer> refresh : refreshes) {
+			try {
+				fetched += refresh.get();
+			}
+			catch (ExecutionException e) {
+				log.warn("Refresh failed, exception:" + e.getCause().toString());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+
+		log.debug("Refresh check of " + refreshes.size() + " symbols fetched " + fetched + " pages");
+	}
+
+	/**
+	 * Queues a refresh of every cache for each of the symbols, run on the refresh threads.
+	 * At most refresh.max-queued requested refreshes wait at a time, a batch that would go over is not queued at all.
+	 *
+	 * @param symbols
+	 * @return number of symbols queued, or -1 if there is no room for them
+	 */
+	public int submitRefresh(Collection<String> symbols) {
+		int count = symbols.size();
+
+		if (queued.addAndGet(count) > maxQueued) {
+			queued.addAndGet(-count);
+			return -1;
+		}
+
+		for (String symbol : symbols) {
+			executor.submit(() -> {
+				try {
+					refresher.refreshAll(symbol);
+				}
+				catch (RuntimeException e) {
+					log.warn("Refresh of " + symbol + " failed, exception:" + e.toString());
+				}
+				finally {
+					queued.decrementAndGet();
+				}
+			});
+		}
+
+		return count;
+	}
+
+	/**
+	 * The most requested refreshes that can wait at once, so also the largest batch submitRefresh accepts.
+	 */
+	public int getMaxQueued() {
+		return maxQueued;
+	}
+
+	/**
+	 * Refreshes or evicts the symbol's due entries.
+	 *
+	 * @return number of pages fetched from upstream
+	 */
+	int refreshSymbol(String symbol, LocalDate today, long now) {
+		if (now - lastAccessed(symbol) > idleDays * DAY_MILLIS) {
+			for (String cacheName : StockCacheView.CACHE_NAMES) {
+				cacheView.evict(cacheName, symbol);
+			}
+			return 0;
+		}
+
+		for (String cacheName : StockCacheView.CACHE_NAMES) {
+			if (isNotFound(cacheName, symbol) && now - cacheView.getWrittenAt(cacheName, symbol) > DAY_MILLIS) {
+				cacheView.evict(cacheName, symbol);
+			}
+		}
+
+		int fetched = 0;
+
+		if (isStale(StockCacheView.STOCK_DATA, symbol, today) || isStale(StockCacheView.DIVIDEND_DATA, symbol, today)
+				|| isStale(StockCacheView.FUNDAMENTAL_DATA, symbol, today)) {
+			refresher.refreshStockPage(symbol, true);
+			fetched++;
+		}
+
+		if (isStale(StockCacheView.DIVIDEND_HISTORY, symbol, today) && isHistoryDue(symbol, today, now)) {
+			refresher.refresh(StockCacheView.DIVIDEND_HISTORY, symbol);
+			fetched++;
+		}
+
+		return fetched;
+	}
+
+	private boolean isHistoryDue(String symbol, LocalDate today, long now) {
+		DividendData dividendData = cacheView.get(StockCacheView.DIVIDEND_DATA, symbol, DividendData.class);
+		DividendHistory history = cacheView.get(StockCacheView.DIVIDEND_HISTORY, symbol, DividendHistory.class);
+		LocalDate latestPayment = latestPaymentDate(history);
+
+		if (dividendData != null && dividendData.getLastExDividendDate() != null
+				&& !dividendData.getLastExDividendDate().isAfter(today)
+				&& (latestPayment == null || dividendData.getLastExDividendDate().isAfter(latestPayment))) {
+			return true;
+		}
+
+		return isInExDividendWindow(dividendData, history, today, windowBeforeDays, windowAfterDays)
+				|| now - cacheView.getWrittenAt(StockCacheView.DIVIDEND_HISTORY, symbol) > maxAgeDays * DAY_MILLIS;
+	}
+
+	/**
+	 * True if today is close enough to the predicted next ex-dividend date that a new dividend may appear.
+	 * The window is narrowed for frequent payers, so monthly payers are not in it all the time.
+	 */
+	static boolean isInExDividendWindow(DividendData dividendData, DividendHistory history, LocalDate today,
+			int windowBeforeDays, int windowAfterDays) {
+		LocalDate lastExDate = latestPaymentDate(history);
+
+		if (dividendData != null && dividendData.getLastExDividendDate() != null
+				&& (lastExDate == null || dividendData.getLastExDividendDate().isAfter(lastExDate))) {
+			lastExDate = dividendData.getLastExDividendDate();
+		}
+
+		if (lastExDate == null) {
+			return false;
+		}
+
+		int cadence = cadenceDays(history);
+		LocalDate predicted = lastExDate.plusDays(cadence);
+
+		return !today.isBefore(predicted.minusDays(Math.min(windowBeforeDays, cadence / 4)))
+				&& !today.isAfter(predicted.plusDays(Math.min(windowAfterDays, cadence / 4)));
+	}
+
+	/**
+	 * The typical number of days between payments, the median gap over the latest payments, so a monthly, quarterly
+	 * or annual payer is recognised even with the odd special dividend.
+	 */
+	static int cadenceDays(DividendHistory history) {
+		List<DividendPayment> payments = history != null ? history.getDividends() : Collections.emptyList();
+		List<Long> gaps = new ArrayList<>();
+
+		for (int i = Math.max(1, payments.size() - CADENCE_PAYMENTS); i < payments.size(); i++) {
+			long gap = payments.get(i).getDate().toEpochDay() - payments.get(i - 1).getDate().toEpochDay();
+
+			if (gap > 0) {
+				gaps.add(gap);
+			}
+		}
+
+		if (gaps.isEmpty()) {
+			return DEFAULT_CADENCE_DAYS;
+		}
+
+		Collections.sort(gaps);
+		return (int) (long) gaps.get(gaps.size() / 2);
+	}
+
+	private static LocalDate latestPaymentDate(DividendHistory history) {
+		if (history == null || history.getDividends().isEmpty()) {
+			return null;
+		}
+
+		return history.getDividends().get(history.getDividends().size() - 1).getDate();
+	}
+
+	private boolean isStale(String cacheName, String symbol, LocalDate today) {
+		long writtenAt = cacheView.getWrittenAt(cacheName, symbol);
+
+		return writtenAt != 0 && !isNotFound(cacheName, symbol)
+				&& Instant.ofEpochMilli(writtenAt).atZone(ZoneId.systemDefault()).toLocalDate().isBefore(today);
+	}
+
+	private boolean isNotFound(String cacheName, String symbol) {
+		return cacheView.contains(cacheName, symbol) && cacheView.get(cacheName, symbol, Object.class) == null;
+	}
+
+	private long lastAccessed(String symbol) {
+		long accessedAt = 0;
+
+		for (String cacheName : StockCacheView.CACHE_NAMES) {
+			accessedAt = Math.max(accessedAt, cacheView.getAccessedAt(cacheName, symbol));
+		}
+
+		return accessedAt;
+	}
+}
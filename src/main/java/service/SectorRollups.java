@@ -0,0 +1,278 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.springframework.stereotype.Component;
+
+import service.models.Amount;
+import service.models.DividendData;
+import service.models.SectorSummary;
+import service.models.StockData;
+import service.models.StringDictionary;
+
+/**
+ * Sector and industry aggregates over the cached StockData and DividendData, kept up to date as entries are cached,
+ * refreshed and evicted rather than recomputed from the caches on each request.
+ *
+ * A symbol counts towards its sector and industry once both its StockData and DividendData are cached.
+ * Groups are keyed by the StringDictionary ids of the sector and industry.  Each group keeps its yields in two
+ * balanced sorted sets, so the median and the top payers are read without a scan.
+ */
+@Component
+public class SectorRollups implements CacheEntryListener {
+	private static final int YIELD_SCALE = 2;
+	private static final Comparator<Member> BY_YIELD =
+			Comparator.comparing((Member member) -> member.yield).thenComparing(member -> member.symbol);
+
+	private final Map<String, Member> members = new HashMap<>();
+	private final Map<Integer, Group> sectors = new HashMap<>();
+	private final Map<Long, Group> industries = new HashMap<>();
+
+	@Override
+	public void entryPut(String cacheName, Object key, Object previousValue, Object value) {
+		if (StockCacheView.STOCK_DATA.equals(cacheName)) {
+			update(key.toString(), value instanceof StockData ? (StockData) value : null, null, true);
+		}
+		else if (StockCacheView.DIVIDEND_DATA.equals(cacheName)) {
+			update(key.toString(), null, value instanceof DividendData ? (DividendData) value : null, false);
+		}
+	}
+
+	@Override
+	public void entryEvicted(String cacheName, Object key, Object previousValue) {
+		entryPut(cacheName, key, previousValue, null);
+	}
+
+	@Override
+	public synchronized void cacheCleared(String cacheName) {
+		if (StockCacheView.STOCK_DATA.equals(cacheName) || StockCacheView.DIVIDEND_DATA.equals(cacheName)) {
+			for (String symbol : new ArrayList<>(members.keySet())) {
+				entryPut(cacheName, symbol, null, null);
+			}
+		}
+	}
+
+	/**
+	 * Summaries of every sector, by name.
+	 *
+	 * @param topPayers number of top payers to include in each
+	 */
+	public synchronized List<SectorSummary> getSectors(int topPayers) {
+		List<SectorSummary> summaries = new ArrayList<>();
+		sectors.forEach((sectorId, group) -> summaries.add(group.summarize(StringDictionary.SECTORS.value(sectorId), topPayers)));
+		summaries.sort(Comparator.comparing(SectorSummary::getName));
+
+		return summaries;
+	}
+
+	/**
+	 * Summaries of every industry in the sector, by name, or null if no cached stock is in the sector.
+	 *
+	 * @param sector sector name, ignoring case
+	 * @param topPayers number of top payers to include in each
+	 */
+	public synchronized List<SectorSummary> getIndustries(String sector, int topPayers) {
+		Integer sectorId = findSector(sector);
+		if (sectorId == null) {
+			return null;
+		}
+
+		List<SectorSummary> summaries = new ArrayList<>();
+		industries.forEach((key, group) -> {
+			if ((int) (key >> 32) == sectorId) {
+				summaries.add(group.summarize(StringDictionary.INDUSTRIES.value(key.intValue()), topPayers));
+			}
+		});
+		summaries.sort(Comparator.comparing(SectorSummary::getName));
+
+		return summaries;
+	}
+
+	private Integer findSector(String sector) {
+		for (Integer sectorId : sectors.keySet()) {
+			if (StringDictionary.SECTORS.value(sectorId).equalsIgnoreCase(sector.trim())) {
+				return sectorId;
+			}
+		}
+
+		return null;
+	}
+
+	private synchronized void update(String symbol, StockData stockData, DividendData dividendData, boolean stockDataChanged) {
+		Member previous = members.get(symbol);
+		Member current = (previous != null ? previous : new Member(symbol));
+		Member next = stockDataChanged ? current.withStockData(stockData) : current.withDividendData(dividendData);
+
+		if (previous != null && previous.isComplete()) {
+			groupsOf(previous, group -> group.remove(previous));
+		}
+
+		if (next.hasStockData || next.hasDividendData) {
+			members.put(symbol, next);
+		}
+		else {
+			members.remove(symbol);
+		}
+
+		if (next.isComplete()) {
+			groupsOf(next, group -> group.add(next));
+		}
+	}
+
+	private void groupsOf(Member member, Consumer<Group> action) {
+		Group sector = sectors.computeIfAbsent(member.sectorId, id -> new Group());
+		action.accept(sector);
+		if (sector.isEmpty()) {
+			sectors.remove(member.sectorId);
+		}
+
+		if (member.industryId >= 0) {
+			long key = ((long) member.sectorId << 32) | member.industryId;
+			Group industry = industries.computeIfAbsent(key, id -> new Group());
+			action.accept(industry);
+			if (industry.isEmpty()) {
+				industries.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * What the rollups need to know about one cached symbol.
+	 */
+	private static final class Member {
+		final String symbol;
+		final boolean hasStockData;
+		final String name;
+		final int sectorId;
+		final int industryId;
+		final boolean hasDividendData;
+		final Amount yield;
+		final int yearsPaying;
+
+		Member(String symbol) {
+			this(symbol, false, null, -1, -1, false, null, 0);
+		}
+
+		Member(String symbol, boolean hasStockData, String name, int sectorId, int industryId,
+				boolean hasDividendData, Amount yield, int yearsPaying) {
+			this.symbol = symbol;
+			this.hasStockData = hasStockData;
+			this.name = name;
+			this.sectorId = sectorId;
+			this.industryId = industryId;
+			this.hasDividendData = hasDividendData;
+			this.yield = yield;
+			this.yearsPaying = yearsPaying;
+		}
+
+		Member withStockData(StockData stockData) {
+			return stockData == null ? new Member(symbol, false, null, -1, -1, hasDividendData, yield, yearsPaying)
+					: new Member(symbol, true, stockData.getName(), stockData.getSectorId(), stockData.getIndustryId(),
+							hasDividendData, yield, yearsPaying);
+		}
+
+		Member withDividendData(DividendData dividendData) {
+			if (dividendData == null) {
+				return new Member(symbol, hasStockData, name, sectorId, industryId, false, null, 0);
+			}
+
+			return new Member(symbol, hasStockData, name, sectorId, industryId, true,
+					dividendData.getEstimatedForwardAnnualYieldAmount(), dividendData.getYearsPaying());
+		}
+
+		boolean isComplete() {
+			return hasStockData && hasDividendData && sectorId >= 0;
+		}
+	}
+
+	/**
+	 * Running totals for a sector or industry.  The lower set holds the lower half of the yields, and one more than
+	 * the upper set when the count is odd, so the median is always at the boundary of the two.
+	 */
+	private static final class Group {
+		int count;
+		long yearsPayingTotal;
+		Amount yieldTotal = Amount.of(0, YIELD_SCALE);
+		final TreeSet<Member> lower = new TreeSet<>(BY_YIELD);
+		final TreeSet<Member> upper = new TreeSet<>(BY_YIELD);
+
+		void add(Member member) {
+			count++;
+			yearsPayingTotal += member.yearsPaying;
+
+			if (member.yield != null) {
+				yieldTotal = yieldTotal.add(member.yield);
+
+				if (lower.isEmpty() || BY_YIELD.compare(member, lower.last()) <= 0) {
+					lower.add(member);
+				}
+				else {
+					upper.add(member);
+				}
+				rebalance();
+			}
+		}
+
+		void remove(Member member) {
+			count--;
+			yearsPayingTotal -= member.yearsPaying;
+
+			if (member.yield != null) {
+				yieldTotal = yieldTotal.subtract(member.yield);
+
+				if (!lower.remove(member)) {
+					upper.remove(member);
+				}
+				rebalance();
+			}
+		}
+
+		boolean isEmpty() {
+			return count == 0;
+		}
+
+		private void rebalance() {
+			if (lower.size() > upper.size() + 1) {
+				upper.add(lower.pollLast());
+			}
+			else if (upper.size() > lower.size()) {
+				lower.add(upper.pollFirst());
+			}
+		}
+
+		SectorSummary summarize(String name, int topPayers) {
+			SectorSummary summary = new SectorSummary();
+			summary.setName(name);
+			summary.setSymbolCount(count);
+			summary.setAverageYearsPayingAmount(Amount.of(yearsPayingTotal, 0).dividedBy(count, 1));
+
+			int yields = lower.size() + upper.size();
+			if (yields > 0) {
+				summary.setMeanForwardYieldAmount(yieldTotal.dividedBy(yields, YIELD_SCALE));
+				summary.setMedianForwardYieldAmount(lower.size() > upper.size() ? lower.last().yield.rescale(YIELD_SCALE)
+						: lower.last().yield.add(upper.first().yield).dividedBy(2, YIELD_SCALE));
+			}
+
+			List<SectorSummary.Payer> payers = new ArrayList<>();
+			addPayers(upper.descendingIterator(), payers, topPayers);
+			addPayers(lower.descendingIterator(), payers, topPayers);
+			summary.setTopPayers(payers);
+
+			return summary;
+		}
+
+		private static void addPayers(Iterator<Member> members, List<SectorSummary.Payer> payers, int topPayers) {
+			while (payers.size() < topPayers && members.hasNext()) {
+				Member member = members.next();
+				payers.add(new SectorSummary.Payer(member.symbol, member.name, member.yield));
+			}
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+/**
+ * Chooses the store shared between instances of the service, set with cache.shared.type.
+ *
+ * redis uses the server from the spring.redis.* properties, local keeps it in this JVM and none (the default) leaves
+ * each instance with only its own in-process caches.
+ */
+
+@Configuration
+public class SharedCacheConfiguration {
+
+	@Bean
+	@ConditionalOnProperty(name = "cache.shared.type", havingValue = "redis")
+	public SharedCacheStore redisSharedCacheStore(RedisConnectionFactory connectionFactory) {
+		return new RedisSharedCacheStore(connectionFactory);
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "cache.shared.type", havingValue = "local")
+	public SharedCacheStore localSharedCacheStore() {
+		return new InMemorySharedCacheStore();
+	}
+}
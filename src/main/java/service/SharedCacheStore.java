@@ -0,0 +1,43 @@
+package service;
+
+import java.util.function.Consumer;
+
+/**
+ * A byte store shared by every instance of the service, used as the second level behind the in-process caches.
+ *
+ * Leases give one instance at a time the right to refresh a key, so a symbol is only scraped once across the fleet.
+ */
+public interface SharedCacheStore {
+
+	/**
+	 * The stored value, or null if there is none.
+	 */
+	byte[] get(String key);
+
+	void put(String key, byte[] value, long ttlMillis);
+
+	void delete(String key);
+
+	/**
+	 * Deletes every key starting with the prefix.
+	 */
+	void deleteByPrefix(String prefix);
+
+	/**
+	 * Calls the action with every stored key starting with the prefix, leases excluded.  Keys are passed on as they
+	 * are found rather than collected.
+	 */
+	void forEachKey(String prefix, Consumer<String> action);
+
+	/**
+	 * Takes the lease on the key for the owner, if no one else holds it.  The lease expires by itself after leaseMillis.
+	 *
+	 * @return true if the owner now holds the lease
+	 */
+	boolean tryLease(String key, String owner, long leaseMillis);
+
+	/**
+	 * Releases the lease on the key, if the owner still holds it.
+	 */
+	void releaseLease(String key, String owner);
+}
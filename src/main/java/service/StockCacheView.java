@@ -0,0 +1,227 @@
+package service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Read access to what is currently held in the stock caches, for features that work across every cached symbol.
+ *
+ * Cache keys are upper case ticker symbols and values are the controller's cached responses.
+ */
+@Component
+public class StockCacheView {
+	public static final String STOCK_DATA = "stockData";
+	public static final String DIVIDEND_DATA = "dividendData";
+	public static final String DIVIDEND_HISTORY = "dividendHistory";
+	public static final String FUNDAMENTAL_DATA = "fundamentalData";
+	public static final String[] CACHE_NAMES = {STOCK_DATA, DIVIDEND_DATA, DIVIDEND_HISTORY, FUNDAMENTAL_DATA};
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	/**
+	 * Calls the action once for every symbol held in any of the caches.
+	 * Iterates the caches directly, so no list of symbols is built up.
+	 *
+	 * @param action
+	 */
+	public void forEachSymbol(Consumer<String> action) {
+		for (int i = 0; i < CACHE_NAMES.length; i++) {
+			for (Object key : keys(CACHE_NAMES[i])) {
+				if (!inEarlierCache(key, i)) {
+					action.accept(key.toString());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Calls the action once for every symbol held in any of the caches, on this instance or in the shared tier.
+	 * Local entries are walked as in forEachSymbol, only symbols held just in the shared tier are collected, so they
+	 * are not repeated for each cache holding them.
+	 *
+	 * @param action
+	 */
+	public void forEachStoredSymbol(Consumer<String> action) {
+		forEachSymbol(action);
+
+		Set<String> sharedOnly = new HashSet<>();
+		for (String cacheName : CACHE_NAMES) {
+			Cache cache = cacheManager.getCache(cacheName);
+
+			if (cache instanceof TwoLevelCache) {
+				((TwoLevelCache) cache).forEachSharedKey(key -> {
+					if (!inEarlierCache(key, CACHE_NAMES.length) && sharedOnly.add(key)) {
+						action.accept(key);
+					}
+				});
+			}
+		}
+	}
+
+	/**
+	 * The response body for the symbol from this instance's cache, or from the shared tier if it is not held here.
+	 * Shared entries are only read, not copied into this instance, so it does not count as a client read either.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 * @param type
+	 */
+	public <T> T getStored(String cacheName, String symbol, Class<T> type) {
+		if (contains(cacheName, symbol)) {
+			return get(cacheName, symbol, type);
+		}
+
+		Cache cache = cacheManager.getCache(cacheName);
+		Object body = cache instanceof TwoLevelCache ? ObservedCache.body(((TwoLevelCache) cache).peekShared(symbol.toUpperCase())) : null;
+
+		return type.isInstance(body) ? type.cast(body) : null;
+	}
+
+	/**
+	 * The cached response body for the symbol, or null if it is not cached or was not found upstream.
+	 * Reads the in-process cache directly, so it does not count as a client reading the entry.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 * @param type
+	 */
+	public <T> T get(String cacheName, String symbol, Class<T> type) {
+		Map<?, ?> entries = nativeMap(cacheName);
+		Object value = entries != null ? entries.get(symbol.toUpperCase()) : null;
+
+		if (value == null) {
+			return null;
+		}
+
+		Object body = ObservedCache.body(value);
+		return type.isInstance(body) ? type.cast(body) : null;
+	}
+
+	/**
+	 * The keys currently held in the named cache.  This is a live view, not a copy.
+	 *
+	 * @param cacheName
+	 */
+	public Iterable<?> keys(String cacheName) {
+		Map<?, ?> entries = nativeMap(cacheName);
+		return entries != null ? entries.keySet() : Collections.emptySet();
+	}
+
+	/**
+	 * When the symbol's entry was last written, in epoch millis, or 0 if it is not cached.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 */
+	public long getWrittenAt(String cacheName, String symbol) {
+		ObservedCache cache = observedCache(cacheName);
+		return cache != null ? cache.getWrittenAt(symbol.toUpperCase()) : 0;
+	}
+
+	/**
+	 * When the symbol's entry was last read by a client, in epoch millis, or 0 if it is not cached.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 */
+	public long getAccessedAt(String cacheName, String symbol) {
+		ObservedCache cache = observedCache(cacheName);
+		return cache != null ? cache.getAccessedAt(symbol.toUpperCase()) : 0;
+	}
+
+	/**
+	 * Hit and miss counts for the named cache, or null if it is not an observed cache.
+	 *
+	 * @param cacheName
+	 */
+	public CacheStatistics getStatistics(String cacheName) {
+		ObservedCache cache = observedCache(cacheName);
+		return cache != null ? cache.getStatistics() : null;
+	}
+
+	/**
+	 * True if the symbol is cached, including as a not found response.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 */
+	public boolean contains(String cacheName, String symbol) {
+		Map<?, ?> entries = nativeMap(cacheName);
+		return entries != null && entries.containsKey(symbol.toUpperCase());
+	}
+
+	/**
+	 * Caches the response without it counting as a client read, so bulk loaded symbols are not kept refreshed
+	 * until a client asks for them.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 * @param response
+	 */
+	public void putUnread(String cacheName, String symbol, Object response) {
+		Cache cache = cacheManager.getCache(cacheName);
+		String key = symbol.toUpperCase();
+
+		if (cache instanceof TwoLevelCache) {
+			((TwoLevelCache) cache).putUnread(key, response);
+		}
+		else if (cache instanceof ObservedCache) {
+			((ObservedCache) cache).putUnread(key, response);
+		}
+		else if (cache != null) {
+			cache.put(key, response);
+		}
+	}
+
+	/**
+	 * Removes the symbol from the named cache.
+	 *
+	 * @param cacheName
+	 * @param symbol
+	 */
+	public void evict(String cacheName, String symbol) {
+		Cache cache = cacheManager.getCache(cacheName);
+
+		if (cache != null) {
+			cache.evict(symbol.toUpperCase());
+		}
+	}
+
+	private Map<?, ?> nativeMap(String cacheName) {
+		Cache cache = cacheManager.getCache(cacheName);
+		Object nativeCache = cache != null ? cache.getNativeCache() : null;
+
+		return nativeCache instanceof Map ? (Map<?, ?>) nativeCache : null;
+	}
+
+	private ObservedCache observedCache(String cacheName) {
+		Cache cache = cacheManager.getCache(cacheName);
+
+		if (cache instanceof TwoLevelCache) {
+			cache = ((TwoLevelCache) cache).getLocal();
+		}
+
+		return cache instanceof ObservedCache ? (ObservedCache) cache : null;
+	}
+
+	private boolean inEarlierCache(Object key, int cacheIndex) {
+		for (int i = 0; i < cacheIndex; i++) {
+			Object nativeCache = cacheManager.getCache(CACHE_NAMES[i]).getNativeCache();
+
+			if (nativeCache instanceof Map && ((Map<?, ?>) nativeCache).containsKey(key)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+}
@@ -0,0 +1,201 @@
+package service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import service.models.StockData;
+import service.models.SymbolMatch;
+
+/**
+ * Prefix index over every symbol the service has seen, for type-ahead searches that must never go upstream.
+ *
+ * Symbols are added as their StockData is cached, and can be preloaded from the file set in symbols.preload-file
+ * (one "symbol,name" per line, the name is optional).  Symbols stay in the index after they leave the caches.
+ *
+ * Both symbols and the words of company names are kept in sorted skip lists, so a prefix search is a range scan
+ * starting at the prefix and reads never lock.
+ */
+@Component
+public class SymbolIndex implements CacheEntryListener {
+	private static final char TOKEN_SEPARATOR = '\0';
+	private static final Logger log = LoggerFactory.getLogger(SymbolIndex.class);
+
+	//Symbol to company name, "" when the name is not known
+	private final ConcurrentNavigableMap<String, String> names = new ConcurrentSkipListMap<>();
+	//Name word, separator, symbol to symbol, so a word can lead to several symbols
+	private final ConcurrentNavigableMap<String, String> nameTokens = new ConcurrentSkipListMap<>();
+	private final String preloadFile;
+
+	public SymbolIndex(@Value("${symbols.preload-file:}") String preloadFile) {
+		this.preloadFile = preloadFile;
+	}
+
+	@PostConstruct
+	public void preload() throws IOException {
+		if (preloadFile.isEmpty()) {
+			return;
+		}
+
+		Path path = Paths.get(preloadFile);
+		if (!Files.isReadable(path)) {
+			log.warn("Symbol preload file " + path + " cannot be read, starting with an empty index");
+			return;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+
+				if (!line.isEmpty() && !line.startsWith("#")) {
+					int comma = line.indexOf(',');
+					add(comma < 0 ? line : line.substring(0, comma), comma < 0 ? null : line.substring(comma + 1));
+				}
+			}
+		}
+
+		log.debug("Preloaded " + names.size() + " symbols from " + path);
+	}
+
+	@Override
+	public void entryPut(String cacheName, Object key, Object previousValue, Object value) {
+		if (value instanceof StockData) {
+			StockData stockData = (StockData) value;
+			add(stockData.getSymbol() != null ? stockData.getSymbol() : key.toString(), stockData.getName());
+		}
+	}
+
+	/**
+	 * Adds the symbol, or updates its name.  A null or empty name does not replace a known one.
+	 *
+	 * @param symbol
+	 * @param name
+	 */
+	public synchronized void add(String symbol, String name) {
+		String key = normalize(symbol);
+		String newName = name != null ? name.trim() : "";
+
+		if (key.isEmpty()) {
+			return;
+		}
+
+		String oldName = names.get(key);
+		if (oldName != null && (newName.isEmpty() || newName.equals(oldName))) {
+			return;
+		}
+
+		if (oldName != null) {
+			for (String token : tokenize(oldName)) {
+				nameTokens.remove(token + TOKEN_SEPARATOR + key);
+			}
+		}
+
+		names.put(key, newName);
+
+		for (String token : tokenize(newName)) {
+			nameTokens.put(token + TOKEN_SEPARATOR + key, key);
+		}
+	}
+
+	/**
+	 * Symbols starting with the query, followed by symbols with a company name word starting with it.
+	 * When the query is several words, each of them must start a word of the name.
+	 *
+	 * @param query
+	 * @param limit maximum number of matches
+	 */
+	public List<SymbolMatch> search(String query, int limit) {
+		String prefix = normalize(query);
+		if (prefix.isEmpty() || limit <= 0) {
+			return Collections.emptyList();
+		}
+
+		Map<String, SymbolMatch> matches = new LinkedHashMap<>();
+
+		for (Map.Entry<String, String> entry : names.tailMap(prefix).entrySet()) {
+			if (matches.size() >= limit || !entry.getKey().startsWith(prefix)) {
+				break;
+			}
+
+			matches.put(entry.getKey(), match(entry.getKey(), entry.getValue()));
+		}
+
+		List<String> queryTokens = tokenize(prefix);
+		if (queryTokens.isEmpty()) {
+			return new ArrayList<>(matches.values());
+		}
+
+		String first = queryTokens.get(0);
+		for (Map.Entry<String, String> entry : nameTokens.tailMap(first).entrySet()) {
+			if (matches.size() >= limit || !entry.getKey().startsWith(first)) {
+				break;
+			}
+
+			String symbol = entry.getValue();
+			String name = names.get(symbol);
+
+			if (!matches.containsKey(symbol) && name != null && startsWords(tokenize(name), queryTokens)) {
+				matches.put(symbol, match(symbol, name));
+			}
+		}
+
+		return new ArrayList<>(matches.values());
+	}
+
+	/**
+	 * Number of symbols in the index.
+	 */
+	public int size() {
+		return names.size();
+	}
+
+	private static SymbolMatch match(String symbol, String name) {
+		return new SymbolMatch(symbol, name.isEmpty() ? null : name);
+	}
+
+	private static boolean startsWords(List<String> nameTokens, List<String> queryTokens) {
+		for (String queryToken : queryTokens) {
+			if (nameTokens.stream().noneMatch(token -> token.startsWith(queryToken))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static String normalize(String value) {
+		return value != null ? value.trim().toUpperCase(Locale.ROOT) : "";
+	}
+
+	private static List<String> tokenize(String name) {
+		List<String> tokens = new ArrayList<>();
+
+		for (String token : name.toUpperCase(Locale.ROOT).split("[^\\p{Alnum}]+")) {
+			if (!token.isEmpty()) {
+				tokens.add(token);
+			}
+		}
+
+		return tokens;
+	}
+}
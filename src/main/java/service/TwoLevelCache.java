@@ -0,0 +1,355 @@
+package service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Cache with an in-process first level in front of a SharedCacheStore used by every instance of the service.
+ *
+ * Misses in the local level are filled from the shared store when another instance has already loaded the value.
+ * Otherwise the instance that gets the lease on the key loads it and writes it to the shared store, while the others
+ * wait for it to appear, so a value is only loaded once across the fleet.  If the lease holder does not finish in
+ * time the waiting instance loads the value itself.
+ *
+ * Values are the controller's cached responses, stored as the time they were written, the status and then the
+ * BinaryModelCodec encoded body.  Refreshes use the write time and the lease so that each symbol is refreshed from
+ * upstream by one instance, and the others take its result (see CacheRefresher).
+ * If the shared store cannot be reached, the cache carries on with just the local level.
+ */
+public class TwoLevelCache implements Cache {
+	private static final byte NOT_FOUND = 0;
+	private static final byte RESPONSE = 1;
+	private static final byte MODEL = 2;
+	private static final long LEASE_POLL_MILLIS = 100;
+	private static final Logger log = LoggerFactory.getLogger(TwoLevelCache.class);
+
+	private final Cache local;
+	private final SharedCacheStore shared;
+	private final String keyPrefix;
+	private final String owner;
+	private final long ttlMillis;
+	private final long leaseMillis;
+	private final BinaryModelCodec codec = new BinaryModelCodec();
+
+	public TwoLevelCache(Cache local, SharedCacheStore shared, String owner, long ttlMillis, long leaseMillis) {
+		this.local = local;
+		this.shared = shared;
+		//Versioned with the stored layout, so values written by older instances are never decoded
+		this.keyPrefix = "dividendstock:v4:" + local.getName() + ":";
+		this.owner = owner;
+		this.ttlMillis = ttlMillis;
+		this.leaseMillis = leaseMillis;
+	}
+
+	/**
+	 * The in-process first level.
+	 */
+	public Cache getLocal() {
+		return local;
+	}
+
+	/**
+	 * Copies the shared entry into the local level if another instance wrote it after the given time, without
+	 * writing it back to the shared store.  Times come from each instance's clock.
+	 *
+	 * @param key
+	 * @param writtenAfter epoch millis, 0 to take any shared entry
+	 * @return true if a newer shared entry was taken
+	 */
+	public boolean takeNewerShared(Object key, long writtenAfter) {
+		byte[] stored = readShared(key);
+
+		if (stored == null || writtenAt(stored) <= writtenAfter) {
+			return false;
+		}
+
+		local.put(key, decode(stored));
+		return true;
+	}
+
+	/**
+	 * Calls the action with the key of every entry in the shared store, including ones this instance does not hold.
+	 * An unreachable store is logged and treated as having no more keys.
+	 */
+	public void forEachSharedKey(Consumer<String> action) {
+		try {
+			shared.forEachKey(keyPrefix, key -> action.accept(key.substring(keyPrefix.length())));
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not list " + keyPrefix + " in the shared cache, exception:" + e.toString());
+		}
+	}
+
+	/**
+	 * The shared entry, decoded but not copied into the local level, or null if there is none.
+	 */
+	public Object peekShared(Object key) {
+		byte[] stored = readShared(key);
+
+		return stored != null ? decode(stored) : null;
+	}
+
+	/**
+	 * Takes this instance's lease on the key, as used for loads, so one instance at a time refreshes it.
+	 *
+	 * @return true if the lease was taken and must be released with releaseLease
+	 */
+	public boolean tryLease(Object key) {
+		return leaseShared(sharedKey(key));
+	}
+
+	public void releaseLease(Object key) {
+		releaseShared(sharedKey(key));
+	}
+
+	@Override
+	public String getName() {
+		return local.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return local.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper value = local.get(key);
+
+		if (value == null) {
+			byte[] stored = readShared(key);
+
+			if (stored != null) {
+				Object decoded = decode(stored);
+				local.put(key, decoded);
+				value = new SimpleValueWrapper(decoded);
+			}
+		}
+
+		return value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper value = get(key);
+		Object stored = value != null ? value.get() : null;
+
+		if (stored != null && type != null && !type.isInstance(stored)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + stored);
+		}
+
+		return (T) stored;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		//The local level makes other threads on this instance wait for the same key
+		return local.get(key, () -> (T) loadShared(key, valueLoader));
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		//Stamped before the local write, so an instance never sees its own shared entry as newer than its local one
+		long writtenAt = System.currentTimeMillis();
+		local.put(key, value);
+		writeShared(key, value, writtenAt);
+	}
+
+	/**
+	 * Writes both levels without the entry counting as read, see ObservedCache.putUnread.
+	 */
+	public void putUnread(Object key, Object value) {
+		long writtenAt = System.currentTimeMillis();
+		if (local instanceof ObservedCache) {
+			((ObservedCache) local).putUnread(key, value);
+		}
+		else {
+			local.put(key, value);
+		}
+		writeShared(key, value, writtenAt);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		long writtenAt = System.currentTimeMillis();
+		ValueWrapper existing = local.putIfAbsent(key, value);
+
+		if (existing == null) {
+			writeShared(key, value, writtenAt);
+		}
+
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		local.evict(key);
+
+		try {
+			shared.delete(sharedKey(key));
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not evict " + sharedKey(key) + " from the shared cache, exception:" + e.toString());
+		}
+	}
+
+	@Override
+	public void clear() {
+		local.clear();
+
+		try {
+			shared.deleteByPrefix(keyPrefix);
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not clear " + keyPrefix + " from the shared cache, exception:" + e.toString());
+		}
+	}
+
+	/**
+	 * Gets the value from the shared store, or loads it under the key's lease and shares it.
+	 */
+	private Object loadShared(Object key, Callable<?> valueLoader) throws Exception {
+		byte[] stored = readShared(key);
+		if (stored != null) {
+			return decode(stored);
+		}
+
+		String sharedKey = sharedKey(key);
+		boolean leased = leaseShared(sharedKey);
+		long deadline = System.currentTimeMillis() + leaseMillis;
+
+		while (!leased && System.currentTimeMillis() < deadline) {
+			TimeUnit.MILLISECONDS.sleep(LEASE_POLL_MILLIS);
+
+			stored = readShared(key);
+			if (stored != null) {
+				return decode(stored);
+			}
+
+			leased = leaseShared(sharedKey);
+		}
+
+		try {
+			Object value = valueLoader.call();
+			writeShared(key, value, System.currentTimeMillis());
+
+			return value;
+		}
+		finally {
+			if (leased) {
+				releaseShared(sharedKey);
+			}
+		}
+	}
+
+	private byte[] readShared(Object key) {
+		try {
+			return shared.get(sharedKey(key));
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not read " + sharedKey(key) + " from the shared cache, exception:" + e.toString());
+			return null;
+		}
+	}
+
+	private void writeShared(Object key, Object value, long writtenAt) {
+		try {
+			shared.put(sharedKey(key), encode(value, writtenAt), ttlMillis);
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not write " + sharedKey(key) + " to the shared cache, exception:" + e.toString());
+		}
+	}
+
+	/**
+	 * Takes the lease, treating an unreachable store as granted so the value is still loaded.
+	 */
+	private boolean leaseShared(String sharedKey) {
+		try {
+			return shared.tryLease(sharedKey, owner, leaseMillis);
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not lease " + sharedKey + " in the shared cache, exception:" + e.toString());
+			return true;
+		}
+	}
+
+	private void releaseShared(String sharedKey) {
+		try {
+			shared.releaseLease(sharedKey, owner);
+		}
+		catch (RuntimeException e) {
+			log.warn("Could not release lease on " + sharedKey + " in the shared cache, exception:" + e.toString());
+		}
+	}
+
+	private String sharedKey(Object key) {
+		return keyPrefix + key;
+	}
+
+	private static long writtenAt(byte[] stored) {
+		return ByteBuffer.wrap(stored).getLong();
+	}
+
+	private byte[] encode(Object value, long writtenAt) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+
+		try {
+			out.write(ByteBuffer.allocate(Long.BYTES).putLong(writtenAt).array());
+
+			if (value instanceof ResponseEntity) {
+				Object body = ((ResponseEntity<?>) value).getBody();
+
+				if (body == null) {
+					out.write(NOT_FOUND);
+				}
+				else {
+					out.write(RESPONSE);
+					codec.encode(body, out);
+				}
+			}
+			else {
+				out.write(MODEL);
+				codec.encode(value, out);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return out.toByteArray();
+	}
+
+	private Object decode(byte[] stored) {
+		ByteArrayInputStream in = new ByteArrayInputStream(stored, Long.BYTES, stored.length - Long.BYTES);
+
+		try {
+			switch (in.read()) {
+				case NOT_FOUND:
+					return ResponseEntity.notFound().build();
+				case RESPONSE:
+					return ResponseEntity.status(HttpStatus.OK).body(codec.decode(in, Object.class));
+				default:
+					return codec.decode(in, Object.class);
+			}
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
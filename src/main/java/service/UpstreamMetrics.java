@@ -0,0 +1,98 @@
+package service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters describing how upstream page requests have behaved since startup.
+ *
+ * Returned as-is from the metrics endpoint, so the getters double as the JSON shape.
+ */
+public class UpstreamMetrics {
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder attempts = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder hedges = new LongAdder();
+	private final LongAdder hedgeWins = new LongAdder();
+	private final LongAdder budgetExceeded = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private volatile long hedgeDelayMillis;
+
+	void recordRequest() {
+		requests.increment();
+	}
+
+	void recordAttempt() {
+		attempts.increment();
+	}
+
+	void recordRetry() {
+		retries.increment();
+	}
+
+	void recordHedge() {
+		hedges.increment();
+	}
+
+	void recordHedgeWin() {
+		hedgeWins.increment();
+	}
+
+	void recordBudgetExceeded() {
+		budgetExceeded.increment();
+	}
+
+	void recordFailure() {
+		failures.increment();
+	}
+
+	void recordRejected() {
+		rejected.increment();
+	}
+
+	void setHedgeDelayMillis(long hedgeDelayMillis) {
+		this.hedgeDelayMillis = hedgeDelayMillis;
+	}
+
+	public long getRequests() {
+		return requests.sum();
+	}
+
+	public long getAttempts() {
+		return attempts.sum();
+	}
+
+	public long getRetries() {
+		return retries.sum();
+	}
+
+	public long getHedges() {
+		return hedges.sum();
+	}
+
+	public long getHedgeWins() {
+		return hedgeWins.sum();
+	}
+
+	public long getBudgetExceeded() {
+		return budgetExceeded.sum();
+	}
+
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Attempts that could not get an upstream thread, so were made on the caller's thread or not hedged.
+	 */
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	/**
+	 * The delay currently used before a hedged request is sent, i.e. the recent p95 latency.
+	 */
+	public long getHedgeDelayMillis() {
+		return hedgeDelayMillis;
+	}
+}
@@ -0,0 +1,289 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Fetches upstream pages within a latency budget.
+ *
+ * If the first request has not answered by the recent p95 latency, a second (hedged) request is sent and
+ * whichever answers first is used.  Failed attempts are retried with jittered backoff while budget remains.
+ * Only transient failures are retried, a 4xx from upstream is a real answer and is passed straight back.
+ *
+ * Attempts run on at most upstream.max-threads threads.  When they are all busy no hedge is sent, and a request
+ * that cannot get a thread at all makes a single attempt on the caller's thread.
+ *
+ * HTMLUnit WebClients are not thread safe, so every attempt gets its own client from the supplier.
+ * The client of the returned page is left open and must be closed by the caller once parsing is done.
+ */
+@Component
+public class UpstreamPageFetcher {
+	private static final int LATENCY_SAMPLES = 128;
+	private static final int MIN_LATENCY_SAMPLES = 20;
+	private static final Logger log = LoggerFactory.getLogger(UpstreamPageFetcher.class);
+
+	private final long budgetNanos;
+	private final long defaultHedgeDelayNanos;
+	private final boolean hedging;
+	private final int maxRetries;
+	private final long retryBackoffNanos;
+	private final UpstreamMetrics metrics = new UpstreamMetrics();
+	private final ExecutorService executor;
+
+	private final long[] latencies = new long[LATENCY_SAMPLES];
+	private int latencyCount;
+
+	public UpstreamPageFetcher(
+			@Value("${upstream.budget-ms:15000}") long budgetMillis,
+			@Value("${upstream.hedge-delay-ms:2000}") long hedgeDelayMillis,
+			@Value("${upstream.hedging:true}") boolean hedging,
+			@Value("${upstream.max-retries:2}") int maxRetries,
+			@Value("${upstream.retry-backoff-ms:250}") long retryBackoffMillis,
+			@Value("${upstream.max-threads:32}") int maxThreads) {
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		this.defaultHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedgeDelayMillis);
+		this.hedging = hedging;
+		this.maxRetries = maxRetries;
+		this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(retryBackoffMillis);
+		this.metrics.setHedgeDelayMillis(hedgeDelayMillis);
+
+		AtomicInteger threadCount = new AtomicInteger();
+		//No queue, so once every thread is busy a submit is rejected straight away rather than waiting
+		this.executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+			Thread thread = new Thread(runnable, "upstream-fetch-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}, new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Gets the page at the given url, hedging and retrying as needed within the latency budget.
+	 *
+	 * @param url
+	 * @param clients supplies a new WebClient for each attempt
+	 * @return the page, whose WebClient the caller must close
+	 * @throws FailingHttpStatusCodeException if upstream answered with an error status
+	 * @throws TimeoutException if the latency budget ran out
+	 */
+	public HtmlPage getPage(String url, Supplier<WebClient> clients) throws Exception {
+		metrics.recordRequest();
+		long deadline = System.nanoTime() + budgetNanos;
+
+		for (int retry = 0; ; retry++) {
+			try {
+				return getHedgedPage(url, clients, deadline);
+			}
+			catch (Exception e) {
+				boolean retryable = isRetryable(e);
+				long backoff = backoffNanos(retry);
+
+				if (!retryable || retry >= maxRetries || deadline - System.nanoTime() <= backoff) {
+					if (retryable || e instanceof TimeoutException) {
+						metrics.recordFailure();
+					}
+					throw e;
+				}
+
+				metrics.recordRetry();
+				log.debug("Retrying " + url + " after exception:" + e.toString());
+				TimeUnit.NANOSECONDS.sleep(backoff);
+			}
+		}
+	}
+
+	public UpstreamMetrics getMetrics() {
+		return metrics;
+	}
+
+	public long getBudgetMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Runs a single attempt, sending a hedged second attempt if the first is slower than the hedge delay.
+	 */
+	private HtmlPage getHedgedPage(String url, Supplier<WebClient> clients, long deadline) throws Exception {
+		CompletionService<HtmlPage> completion = new ExecutorCompletionService<>(executor);
+		AtomicBoolean settled = new AtomicBoolean();
+		List<Future<HtmlPage>> attempts = new ArrayList<>(2);
+		Future<HtmlPage> hedge = null;
+		boolean canHedge = hedging;
+		Exception failure = null;
+
+		try {
+			attempts.add(completion.submit(attempt(url, clients, settled)));
+		}
+		catch (RejectedExecutionException e) {
+			metrics.recordRejected();
+			log.debug("No upstream threads free, fetching " + url + " without hedging");
+			return attempt(url, clients, settled).call();
+		}
+
+		int pending = 1;
+
+		try {
+			while (pending > 0) {
+				long remaining = deadline - System.nanoTime();
+				long wait = (canHedge && hedge == null) ? Math.min(remaining, hedgeDelayNanos()) : remaining;
+				Future<HtmlPage> done = wait > 0 ? completion.poll(wait, TimeUnit.NANOSECONDS) : null;
+
+				if (done == null) {
+					if (canHedge && hedge == null && deadline - System.nanoTime() > 0) {
+						try {
+							hedge = completion.submit(attempt(url, clients, settled));
+						}
+						catch (RejectedExecutionException e) {
+							metrics.recordRejected();
+							canHedge = false;
+							continue;
+						}
+
+						metrics.recordHedge();
+						attempts.add(hedge);
+						pending++;
+						continue;
+					}
+
+					if (settled.compareAndSet(false, true)) {
+						metrics.recordBudgetExceeded();
+						throw new TimeoutException("No response from " + url + " within " + getBudgetMillis() + "ms");
+					}
+
+					//An attempt won just as the budget ran out, so it is about to be delivered
+					done = completion.take();
+				}
+
+				pending--;
+
+				try {
+					HtmlPage page = done.get();
+					if (done == hedge) {
+						metrics.recordHedgeWin();
+					}
+					return page;
+				}
+				catch (ExecutionException e) {
+					failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+
+					if (!isRetryable(failure)) {
+						settled.set(true);
+						throw failure;
+					}
+				}
+			}
+		}
+		finally {
+			//Attempts still running see they lost and close their own client, even if this thread was interrupted
+			settled.set(true);
+			attempts.forEach(attempt -> attempt.cancel(true));
+		}
+
+		throw failure;
+	}
+
+	/**
+	 * A single request.  Only the first attempt to succeed hands its page back, any that finish later, whether they
+	 * succeed or fail, close their client.
+	 */
+	private Callable<HtmlPage> attempt(String url, Supplier<WebClient> clients, AtomicBoolean settled) {
+		return () -> {
+			metrics.recordAttempt();
+			WebClient webClient = clients.get();
+			long start = System.nanoTime();
+			boolean handedBack = false;
+
+			try {
+				HtmlPage page = webClient.getPage(url);
+				recordLatency(System.nanoTime() - start);
+
+				if (settled.compareAndSet(false, true)) {
+					handedBack = true;
+					return page;
+				}
+
+				throw new CancellationException("Superseded by another request for " + url);
+			}
+			finally {
+				if (!handedBack) {
+					webClient.close();
+				}
+			}
+		};
+	}
+
+	private static boolean isRetryable(Exception e) {
+		if (e instanceof FailingHttpStatusCodeException) {
+			return ((FailingHttpStatusCodeException) e).getStatusCode() >= 500;
+		}
+
+		return !(e instanceof TimeoutException || e instanceof InterruptedException);
+	}
+
+	/**
+	 * Exponential backoff with jitter, so retries from concurrent requests do not arrive together.
+	 */
+	private long backoffNanos(int retry) {
+		long ceiling = retryBackoffNanos << Math.min(retry, 6);
+		return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+	}
+
+	private void recordLatency(long nanos) {
+		synchronized (latencies) {
+			latencies[latencyCount % LATENCY_SAMPLES] = nanos;
+			latencyCount++;
+		}
+	}
+
+	/**
+	 * The p95 of recent successful request latencies, or the configured delay until there are enough samples.
+	 */
+	private long hedgeDelayNanos() {
+		long[] sorted;
+
+		synchronized (latencies) {
+			if (latencyCount < MIN_LATENCY_SAMPLES) {
+				return defaultHedgeDelayNanos;
+			}
+			sorted = Arrays.copyOf(latencies, Math.min(latencyCount, LATENCY_SAMPLES));
+		}
+
+		Arrays.sort(sorted);
+		long p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+		metrics.setHedgeDelayMillis(TimeUnit.NANOSECONDS.toMillis(p95));
+
+		return p95;
+	}
+}
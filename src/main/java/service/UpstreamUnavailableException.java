@@ -0,0 +1,24 @@
+package service;
+
+/**
+ * Upstream could not be reached or did not answer in time, as opposed to answering that the symbol does not exist.
+ *
+ * Thrown rather than returning null so the failure is never cached as a not found, and the next request tries again.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+
+	private final boolean timeout;
+
+	public UpstreamUnavailableException(String message, Throwable cause, boolean timeout) {
+		super(message, cause);
+		this.timeout = timeout;
+	}
+
+	/**
+	 * True if the latency budget ran out, rather than upstream failing.
+	 */
+	public boolean isTimeout() {
+		return timeout;
+	}
+}
@@ -0,0 +1,21 @@
+package service;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC customisation.
+ *
+ * The binary converter is added after the JSON one, so JSON stays the default and binary is only used when asked for.
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new BinaryModelHttpMessageConverter());
+	}
+}
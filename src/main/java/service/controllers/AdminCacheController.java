@@ -0,0 +1,190 @@
+package service.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import service.BinaryModelCodec;
+import service.CacheRefresher;
+import service.CacheStatistics;
+import service.RefreshScheduler;
+import service.StockCacheView;
+import service.models.CacheEntryInfo;
+
+/**
+ * Controller for looking into the caches and fixing individual symbols without clearing everything.
+ * Only registered when admin.enabled is true, as the endpoints have no authentication of their own.
+ */
+
+@RestController
+@ConditionalOnProperty(name = "admin.enabled", havingValue = "true")
+public class AdminCacheController {
+	private static final int MAX_ENTRIES = 10000;
+
+	@Autowired
+	private StockCacheView cacheView;
+
+	@Autowired
+	private CacheRefresher refresher;
+
+	@Autowired
+	private RefreshScheduler scheduler;
+
+	private final BinaryModelCodec codec = new BinaryModelCodec();
+
+    /**
+     * Lists the cached entries with their age and size.
+     *
+     * @param cache only list this cache, all of them if not given
+     * @param limit maximum number of entries, up to 10000
+     */
+    @RequestMapping(value = "/admin/cache/entries", method = RequestMethod.GET)
+    public ResponseEntity<List<CacheEntryInfo>> getEntries(@RequestParam(value = "cache", required = false) String cache,
+    		@RequestParam(value = "limit", defaultValue = "1000") int limit) {
+    	List<String> cacheNames = Arrays.asList(StockCacheView.CACHE_NAMES);
+
+    	if (cache != null) {
+    		if (!cacheNames.contains(cache)) {
+    			return ResponseEntity.notFound().build();
+    		}
+    		cacheNames = Arrays.asList(cache);
+    	}
+
+    	long now = System.currentTimeMillis();
+    	int max = Math.max(0, Math.min(limit, MAX_ENTRIES));
+    	List<CacheEntryInfo> entries = new ArrayList<>();
+
+    	for (String cacheName : cacheNames) {
+    		for (Object key : cacheView.keys(cacheName)) {
+    			if (entries.size() >= max) {
+    				return ResponseEntity.ok(entries);
+    			}
+
+    			entries.add(entryInfo(cacheName, key.toString(), now));
+    		}
+    	}
+
+    	return ResponseEntity.ok(entries);
+    }
+
+    /**
+     * Returns hit, miss and size counters for each cache.
+     */
+    @RequestMapping(value = "/admin/cache/stats", method = RequestMethod.GET)
+    public Map<String, CacheStatistics> getStatistics() {
+    	Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+
+    	for (String cacheName : StockCacheView.CACHE_NAMES) {
+    		statistics.put(cacheName, cacheView.getStatistics(cacheName));
+    	}
+
+    	return statistics;
+    }
+
+    /**
+     * Removes the symbol from all of the caches, so the next request for it goes upstream.
+     *
+     * @param symbol
+     */
+    @RequestMapping(value = "/admin/cache/symbols/{symbol}", method = RequestMethod.DELETE)
+    public ResponseEntity<Void> evictSymbol(@PathVariable("symbol") String symbol) {
+    	for (String cacheName : StockCacheView.CACHE_NAMES) {
+    		cacheView.evict(cacheName, symbol);
+    	}
+
+    	return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Reloads the symbol into all of the caches now.  Clients are served the old values until the new ones are in.
+     *
+     * @param symbol
+     * @return the number of caches updated, a 404 if upstream had nothing for the symbol
+     */
+    @RequestMapping(value = "/admin/cache/symbols/{symbol}/refresh", method = RequestMethod.POST)
+    public ResponseEntity<Integer> refreshSymbol(@PathVariable("symbol") String symbol) {
+    	int updated = refresher.refreshAll(symbol);
+
+    	if (updated == 0) {
+    		return ResponseEntity.notFound().build();
+    	}
+
+    	return ResponseEntity.ok(updated);
+    }
+
+    /**
+     * Queues a refresh of all of the caches for each of the symbols, returning straight away.
+     * Batches larger than refresh.max-queued are rejected, and a 503 means earlier refreshes have not drained yet.
+     *
+     * @param symbols comma separated ticker symbols
+     * @return the number of symbols queued
+     */
+    @RequestMapping(value = "/admin/cache/refresh", method = RequestMethod.POST)
+    public ResponseEntity<Integer> refreshSymbols(@RequestParam("symbols") String symbols) {
+    	List<String> refreshed = Arrays.stream(symbols.split(","))
+    			.map(String::trim)
+    			.filter(symbol -> !symbol.isEmpty())
+    			.map(String::toUpperCase)
+    			.distinct()
+    			.collect(Collectors.toList());
+
+    	if (refreshed.isEmpty() || refreshed.size() > scheduler.getMaxQueued()) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	int queued = scheduler.submitRefresh(refreshed);
+
+    	if (queued < 0) {
+    		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "60").build();
+    	}
+
+    	return ResponseEntity.status(HttpStatus.ACCEPTED).body(queued);
+    }
+
+    private CacheEntryInfo entryInfo(String cacheName, String symbol, long now) {
+    	Object body = cacheView.get(cacheName, symbol, Object.class);
+
+    	CacheEntryInfo info = new CacheEntryInfo();
+    	info.setCacheName(cacheName);
+    	info.setSymbol(symbol);
+    	info.setFound(body != null);
+    	info.setAgeSeconds(secondsSince(cacheView.getWrittenAt(cacheName, symbol), now));
+    	info.setIdleSeconds(secondsSince(cacheView.getAccessedAt(cacheName, symbol), now));
+    	info.setSizeBytes(body != null ? encodedSize(body) : 0);
+
+    	return info;
+    }
+
+    private int encodedSize(Object body) {
+    	ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+
+    	try {
+    		codec.encode(body, out);
+    	}
+    	catch (IOException | IllegalArgumentException e) {
+    		return 0;
+    	}
+
+    	return out.size();
+    }
+
+    private static long secondsSince(long millis, long now) {
+    	return millis > 0 ? Math.max(0, (now - millis) / 1000) : 0;
+    }
+}
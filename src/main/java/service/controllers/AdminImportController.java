@@ -0,0 +1,51 @@
+package service.controllers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import service.DividendCsvImporter;
+import service.models.CsvImportResult;
+
+/**
+ * Controller for loading CSV dividend files into the caches on demand.
+ * Only files under the configured import.dividends.path can be imported, and only when admin.enabled is true.
+ */
+
+@RestController
+@ConditionalOnProperty(name = "admin.enabled", havingValue = "true")
+public class AdminImportController {
+
+	@Autowired
+	private DividendCsvImporter importer;
+
+    /**
+     * Imports the configured path, or a file or directory within it.
+     *
+     * @param path relative to import.dividends.path, all of it if not given
+     */
+    @RequestMapping(value = "/admin/import", method = RequestMethod.POST)
+    public ResponseEntity<CsvImportResult> importCsv(@RequestParam(value = "path", required = false) String path) throws IOException {
+    	Path root = importer.getImportRoot();
+
+    	if (root == null) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	Path target = path != null ? root.resolve(path).normalize() : root;
+
+    	if (!target.startsWith(root) || !Files.exists(target)) {
+    		return ResponseEntity.notFound().build();
+    	}
+
+    	return ResponseEntity.ok(importer.importFiles(target));
+    }
+}
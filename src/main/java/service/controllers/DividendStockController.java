@@ -15,6 +15,8 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 import service.HTMLUnitDataSource;
+import service.ImportedDividends;
+import service.UpstreamMetrics;
 import service.models.DividendData;
 import service.models.DividendHistory;
 import service.models.FundamentalData;
@@ -31,6 +33,9 @@ public class DividendStockController {
 
 	@Autowired
 	private HTMLUnitDataSource dataSource;
+
+	@Autowired
+	private ImportedDividends importedDividends;
 	
     private final AtomicLong counter = new AtomicLong();
     private static final Logger log = LoggerFactory.getLogger(DividendStockController.class);
@@ -40,7 +45,7 @@ public class DividendStockController {
      * 
      * @param symbol
      */
-    @Cacheable("stockData")
+    @Cacheable(value = "stockData", key = "#symbol.toUpperCase()", sync = true)
     @RequestMapping(value = "/stocks/{symbol}", method = RequestMethod.GET)
     public ResponseEntity<StockData> getStockOverview(@PathVariable("symbol") String symbol) {
     	log.debug("Getting uncached stock data for:" + symbol);
@@ -60,7 +65,7 @@ public class DividendStockController {
      * 
      * @param symbol
      */
-    @Cacheable("dividendData")
+    @Cacheable(value = "dividendData", key = "#symbol.toUpperCase()", sync = true)
     @RequestMapping(value = "/stocks/{symbol}/dividends/data", method = RequestMethod.GET)
     public ResponseEntity<DividendData> getDividendData(@PathVariable("symbol") String symbol) {
     	log.debug("Getting uncached dividend data for:" + symbol);
@@ -77,17 +82,20 @@ public class DividendStockController {
     
     /**
      * Returns the history of dividend payments for the stock with the given ticker symbol.
+     * Symbols with imported payments are answered from them without going upstream, later refreshes merge in
+     * any newer payments.
      * 
      * @param symbol
      */
-    @Cacheable("dividendHistory")
+    @Cacheable(value = "dividendHistory", key = "#symbol.toUpperCase()", sync = true)
     @RequestMapping(value = "/stocks/{symbol}/dividends/history", method = RequestMethod.GET)
     public ResponseEntity<DividendHistory> getDividendHistory(@PathVariable("symbol") String symbol) {
     	log.debug("Getting uncached dividend history for:" + symbol);
     	
     	counter.incrementAndGet();
     	
-        DividendHistory history = dataSource.createDividendHistory(symbol.toUpperCase());
+        DividendHistory history = importedDividends.contains(symbol)
+        		? importedDividends.merge(symbol, null) : dataSource.createDividendHistory(symbol.toUpperCase());
         
     	if (history != null)
     		return ResponseEntity.status(HttpStatus.OK).body(history);
@@ -100,7 +108,7 @@ public class DividendStockController {
      * 
      * @param symbol
      */
-    @Cacheable("fundamentalData")
+    @Cacheable(value = "fundamentalData", key = "#symbol.toUpperCase()", sync = true)
     @RequestMapping(value = "/stocks/{symbol}/fundamentals", method = RequestMethod.GET)
     public ResponseEntity<FundamentalData> getFundamentals(@PathVariable("symbol") String symbol) {
     	log.debug("Getting uncached fundamental data for:" + symbol);
@@ -122,4 +130,12 @@ public class DividendStockController {
     public long getUncachedUseCount() {
         return counter.get();
     }
+    
+    /**
+     * Returns retry, hedging and latency budget counters for upstream requests.
+     */
+    @RequestMapping(value = "/upstreamMetrics", method = RequestMethod.GET)
+    public UpstreamMetrics getUpstreamMetrics() {
+        return dataSource.getUpstreamMetrics();
+    }
 }
@@ -0,0 +1,48 @@
+package service.controllers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import service.DividendChangeBroadcaster;
+
+/**
+ * Controller for streaming dividend changes to clients, so they do not need to poll for them.
+ */
+
+@RestController
+public class DividendStreamController {
+
+	@Autowired
+	private DividendChangeBroadcaster broadcaster;
+
+    /**
+     * Streams a Server-Sent Event whenever a refresh finds a changed dividend for one of the symbols.
+     *
+     * @param symbols comma separated ticker symbols
+     */
+    @RequestMapping(value = "/stream/dividends", method = RequestMethod.GET, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamDividends(@RequestParam("symbols") String symbols) {
+    	List<String> subscribed = Arrays.stream(symbols.split(","))
+    			.map(String::trim)
+    			.filter(symbol -> !symbol.isEmpty())
+    			.map(String::toUpperCase)
+    			.distinct()
+    			.collect(Collectors.toList());
+
+    	if (subscribed.isEmpty()) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	return ResponseEntity.ok(broadcaster.subscribe(subscribed));
+    }
+}
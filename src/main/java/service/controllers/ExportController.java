@@ -0,0 +1,135 @@
+package service.controllers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import service.ImportedDividends;
+import service.StockCacheView;
+import service.models.DividendData;
+import service.models.DividendHistory;
+import service.models.FundamentalData;
+import service.models.StockData;
+import service.models.StockExport;
+
+/**
+ * Controller for bulk exports of every stored symbol as newline delimited JSON.  That is every symbol cached on this
+ * instance or in the shared cache tier, and for histories every symbol with imported payments too, so the export is
+ * the same whichever instance serves it.
+ *
+ * Each symbol is serialized and written straight to the response as the caches are walked, so memory use does
+ * not grow with the number of symbols and a slow reader simply holds up the writes.
+ * Responses are gzipped by the server when the client accepts it.
+ */
+
+@RestController
+public class ExportController {
+	public static final MediaType APPLICATION_NDJSON = MediaType.valueOf("application/x-ndjson");
+	private static final int FLUSH_INTERVAL = 100;
+
+	@Autowired
+	private StockCacheView cacheView;
+
+	@Autowired
+	private ImportedDividends importedDividends;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+    /**
+     * Streams the stock data, dividend data and fundamentals of every stored symbol, one symbol per line.
+     */
+    @RequestMapping(value = "/export/dividends.ndjson", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportDividends() {
+    	return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(out -> export(out, false));
+    }
+
+    /**
+     * Streams the dividend history of every stored or imported symbol, one symbol per line.
+     */
+    @RequestMapping(value = "/export/history.ndjson", method = RequestMethod.GET)
+    public ResponseEntity<StreamingResponseBody> exportHistory() {
+    	return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(out -> export(out, true));
+    }
+
+    private void export(OutputStream out, boolean history) throws IOException {
+    	JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    	generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    	generator.setRootValueSeparator(null);
+    	int[] written = {0};
+
+    	Consumer<StockExport> write = line -> {
+    		if (line != null) {
+    			try {
+    				generator.writeObject(line);
+    				generator.writeRaw('\n');
+
+    				if (++written[0] % FLUSH_INTERVAL == 0) {
+    					generator.flush();
+    				}
+    			}
+    			catch (IOException e) {
+    				throw new UncheckedIOException(e);
+    			}
+    		}
+    	};
+
+    	try {
+	    	cacheView.forEachStoredSymbol(symbol -> write.accept(history ? historyLine(symbol) : dividendsLine(symbol)));
+
+	    	if (history) {
+	    		//Imported histories that are not cached anywhere, the cached ones already include their imports
+	    		importedDividends.forEachSymbol(symbol -> {
+	    			if (cacheView.getStored(StockCacheView.DIVIDEND_HISTORY, symbol, DividendHistory.class) == null) {
+	    				write.accept(line(symbol, importedDividends.merge(symbol, null)));
+	    			}
+	    		});
+	    	}
+    	}
+    	catch (UncheckedIOException e) {
+    		throw e.getCause();
+    	}
+
+    	generator.flush();
+    }
+
+    private StockExport dividendsLine(String symbol) {
+    	StockExport line = new StockExport();
+    	line.setSymbol(symbol);
+    	line.setStockData(cacheView.getStored(StockCacheView.STOCK_DATA, symbol, StockData.class));
+    	line.setDividendData(cacheView.getStored(StockCacheView.DIVIDEND_DATA, symbol, DividendData.class));
+    	line.setFundamentalData(cacheView.getStored(StockCacheView.FUNDAMENTAL_DATA, symbol, FundamentalData.class));
+
+    	if (line.getStockData() == null && line.getDividendData() == null && line.getFundamentalData() == null) {
+    		return null;
+    	}
+
+    	return line;
+    }
+
+    private StockExport historyLine(String symbol) {
+    	DividendHistory dividendHistory = cacheView.getStored(StockCacheView.DIVIDEND_HISTORY, symbol, DividendHistory.class);
+
+    	return dividendHistory != null ? line(symbol, dividendHistory) : null;
+    }
+
+    private static StockExport line(String symbol, DividendHistory dividendHistory) {
+    	StockExport line = new StockExport();
+    	line.setSymbol(symbol);
+    	line.setDividendHistory(dividendHistory);
+
+    	return line;
+    }
+}
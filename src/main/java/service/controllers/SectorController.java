@@ -0,0 +1,62 @@
+package service.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import service.SectorRollups;
+import service.models.SectorSummary;
+
+/**
+ * Controller for sector and industry aggregates of the cached stocks, answered from the SectorRollups.
+ */
+
+@RestController
+public class SectorController {
+	private static final int MAX_TOP = 50;
+
+	@Autowired
+	private SectorRollups rollups;
+
+    /**
+     * Summaries of every sector with a cached stock.
+     *
+     * @param top number of top payers to include, up to 50
+     */
+    @RequestMapping(value = "/sectors", method = RequestMethod.GET)
+    public ResponseEntity<List<SectorSummary>> getSectors(@RequestParam(value = "top", defaultValue = "5") int top) {
+    	if (top < 0) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	return ResponseEntity.ok(rollups.getSectors(Math.min(top, MAX_TOP)));
+    }
+
+    /**
+     * Summaries of the industries in a sector.
+     *
+     * @param sector the sector name, ignoring case
+     * @param top number of top payers to include, up to 50
+     */
+    @RequestMapping(value = "/sectors/{sector}/industries", method = RequestMethod.GET)
+    public ResponseEntity<List<SectorSummary>> getIndustries(@PathVariable("sector") String sector,
+    		@RequestParam(value = "top", defaultValue = "5") int top) {
+    	if (top < 0) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	List<SectorSummary> industries = rollups.getIndustries(sector, Math.min(top, MAX_TOP));
+
+    	if (industries == null) {
+    		return ResponseEntity.notFound().build();
+    	}
+
+    	return ResponseEntity.ok(industries);
+    }
+}
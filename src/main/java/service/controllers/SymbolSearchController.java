@@ -0,0 +1,41 @@
+package service.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import service.SymbolIndex;
+import service.models.SymbolMatch;
+
+/**
+ * Controller for looking up symbols as the user types, answered from the in-memory SymbolIndex only.
+ */
+
+@RestController
+public class SymbolSearchController {
+	private static final int MAX_LIMIT = 50;
+
+	@Autowired
+	private SymbolIndex symbolIndex;
+
+    /**
+     * Finds symbols, or company names, starting with the query.
+     *
+     * @param q the text typed so far
+     * @param limit maximum number of matches, up to 50
+     */
+    @RequestMapping(value = "/symbols/search", method = RequestMethod.GET)
+    public ResponseEntity<List<SymbolMatch>> search(@RequestParam("q") String q,
+    		@RequestParam(value = "limit", defaultValue = "10") int limit) {
+    	if (q.trim().isEmpty() || limit < 1) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	return ResponseEntity.ok(symbolIndex.search(q, Math.min(limit, MAX_LIMIT)));
+    }
+}
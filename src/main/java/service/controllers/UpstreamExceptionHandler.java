@@ -0,0 +1,26 @@
+package service.controllers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import service.UpstreamUnavailableException;
+
+/**
+ * Answers requests that needed upstream while it was unavailable with a 504 if it timed out, or a 503 otherwise.
+ */
+
+@RestControllerAdvice
+public class UpstreamExceptionHandler {
+	private static final Logger log = LoggerFactory.getLogger(UpstreamExceptionHandler.class);
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<Void> upstreamUnavailable(UpstreamUnavailableException e) {
+    	log.warn(e.getMessage() + ", exception:" + e.getCause());
+
+    	return ResponseEntity.status(e.isTimeout() ? HttpStatus.GATEWAY_TIMEOUT : HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+}
@@ -0,0 +1,103 @@
+package service.controllers;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import service.CacheRefresher;
+import service.LastCloseSnapshots;
+import service.LastCloseSnapshots.Snapshot;
+import service.StockCacheView;
+import service.models.Amount;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+import service.models.YieldPoint;
+
+/**
+ * Controller for a stock's yield over time, from its dividend history and the recorded daily last closes.
+ */
+
+@RestController
+public class YieldHistoryController {
+	private static final Amount ZERO = Amount.of(0, 2);
+
+	@Autowired
+	private CacheRefresher refresher;
+
+	@Autowired
+	private LastCloseSnapshots snapshots;
+
+    /**
+     * Returns the trailing twelve month dividend and yield for each day a last close was recorded in the range.
+     * Only days the service refreshed the stock's fundamentals have a close, so the series can have gaps.
+     *
+     * @param symbol
+     * @param from first day, defaults to a year before the last day
+     * @param to last day, defaults to today
+     */
+    @RequestMapping(value = "/stocks/{symbol}/yield/history", method = RequestMethod.GET)
+    public ResponseEntity<List<YieldPoint>> getYieldHistory(@PathVariable("symbol") String symbol,
+    		@RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+    		@RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to)
+    		throws IOException {
+    	LocalDate last = to != null ? to : LocalDate.now();
+    	LocalDate first = from != null ? from : last.minusYears(1);
+
+    	if (first.isAfter(last)) {
+    		return ResponseEntity.badRequest().build();
+    	}
+
+    	DividendHistory history = refresher.getOrLoad(StockCacheView.DIVIDEND_HISTORY, symbol, DividendHistory.class);
+
+    	if (history == null) {
+    		return ResponseEntity.notFound().build();
+    	}
+
+    	return ResponseEntity.ok(yields(history.getDividends(), snapshots.read(symbol, first, last)));
+    }
+
+    /**
+     * Walks the closes and payments together, both being in date order, summing the payments with an ex-date in
+     * the year up to each close.
+     */
+    private static List<YieldPoint> yields(List<DividendPayment> payments, List<Snapshot> closes) {
+    	List<YieldPoint> points = new ArrayList<>(closes.size());
+    	int start = 0;
+    	int end = 0;
+
+    	for (Snapshot close : closes) {
+    		LocalDate yearBefore = close.getDate().minusYears(1);
+
+    		while (end < payments.size() && !payments.get(end).getDate().isAfter(close.getDate())) {
+    			end++;
+    		}
+    		while (start < end && !payments.get(start).getDate().isAfter(yearBefore)) {
+    			start++;
+    		}
+
+    		Amount dividend = ZERO;
+    		for (int i = start; i < end; i++) {
+    			Amount payment = payments.get(i).getDividendAmount();
+
+    			if (payment != null) {
+    				dividend = dividend.add(payment);
+    			}
+    		}
+
+    		Amount yield = close.getClose().getUnscaled() > 0 ? dividend.percentOf(close.getClose(), 2) : null;
+    		points.add(new YieldPoint(close.getDate(), close.getClose(), dividend, yield));
+    	}
+
+    	return points;
+    }
+}
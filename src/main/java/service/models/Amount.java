@@ -0,0 +1,252 @@
+package service.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed point decimal amount, an unscaled long and the number of digits after the decimal point.
+ *
+ * Used inside the models in place of BigDecimal, which is larger and churns objects when parsing and comparing.
+ * Conversion to and from BigDecimal is exact and keeps the scale, so 0.080 stays 0.080 in responses.
+ * Like BigDecimal, equals is scale sensitive and compareTo is not.
+ */
+public final class Amount implements Comparable<Amount> {
+	private static final long[] POWERS_OF_TEN = new long[19];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final long unscaled;
+	private final int scale;
+
+	private Amount(long unscaled, int scale) {
+		this.unscaled = unscaled;
+		this.scale = scale;
+	}
+
+	public static Amount of(long unscaled, int scale) {
+		return new Amount(unscaled, scale);
+	}
+
+	/**
+	 * The amount for a BigDecimal, or null for null.
+	 *
+	 * @throws ArithmeticException if the unscaled value does not fit in a long
+	 */
+	public static Amount of(BigDecimal value) {
+		if (value == null) {
+			return null;
+		}
+
+		return new Amount(value.unscaledValue().longValueExact(), value.scale());
+	}
+
+	/**
+	 * Parses text like "$1,234.50" or "-0.08", ignoring dollar signs, thousands separators and surrounding whitespace.
+	 *
+	 * @throws NumberFormatException if the text is not a plain decimal number, or has too many digits
+	 */
+	public static Amount parse(CharSequence text) {
+		long unscaled = 0;
+		int scale = -1;
+		int digits = 0;
+		boolean negative = false;
+		int start = 0;
+		int end = text.length();
+
+		while (start < end && Character.isWhitespace(text.charAt(start))) {
+			start++;
+		}
+		while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+			end--;
+		}
+
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+
+			if (c >= '0' && c <= '9') {
+				if (++digits > 18) {
+					throw new NumberFormatException("Too many digits in amount: " + text);
+				}
+				unscaled = unscaled * 10 + (c - '0');
+				if (scale >= 0) {
+					scale++;
+				}
+			}
+			else if (c == '.' && scale < 0) {
+				scale = 0;
+			}
+			else if (c == '-' && i == start) {
+				negative = true;
+			}
+			else if (c != '$' && c != ',') {
+				throw new NumberFormatException("Invalid amount: " + text);
+			}
+		}
+
+		if (digits == 0) {
+			throw new NumberFormatException("Invalid amount: " + text);
+		}
+
+		return new Amount(negative ? -unscaled : unscaled, Math.max(scale, 0));
+	}
+
+	public long getUnscaled() {
+		return unscaled;
+	}
+
+	public int getScale() {
+		return scale;
+	}
+
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(unscaled, scale);
+	}
+
+	/**
+	 * The unscaled value at the given scale, rounding half even if digits are dropped.
+	 * e.g. 1.255 at scale 2 is 126.
+	 *
+	 * @throws ArithmeticException if the result does not fit in a long
+	 */
+	public long unscaledAt(int newScale) {
+		if (newScale >= scale) {
+			return Math.multiplyExact(unscaled, powerOfTen(newScale - scale));
+		}
+
+		return divideHalfEven(unscaled, powerOfTen(scale - newScale));
+	}
+
+	/**
+	 * This amount as a percentage of the base amount, rounded half even to the given scale.
+	 * e.g. a yield is dividend.percentOf(price, 2)
+	 */
+	public Amount percentOf(Amount base, int resultScale) {
+		//this * 100 / base, with the unscaled values lined up to give resultScale digits
+		int exponent = 2 + resultScale + base.scale - scale;
+
+		try {
+			if (exponent >= 0) {
+				return new Amount(divideHalfEven(Math.multiplyExact(unscaled, powerOfTen(exponent)), base.unscaled), resultScale);
+			}
+
+			return new Amount(divideHalfEven(unscaled, Math.multiplyExact(base.unscaled, powerOfTen(-exponent))), resultScale);
+		}
+		catch (ArithmeticException e) {
+			if (base.unscaled == 0) {
+				throw e;
+			}
+
+			//Too large for long arithmetic, so fall back to BigDecimal
+			return of(toBigDecimal().scaleByPowerOfTen(2).divide(base.toBigDecimal(), resultScale, RoundingMode.HALF_EVEN));
+		}
+	}
+
+	public Amount add(Amount other) {
+		int commonScale = Math.max(scale, other.scale);
+
+		return new Amount(Math.addExact(unscaledAt(commonScale), other.unscaledAt(commonScale)), commonScale);
+	}
+
+	public Amount subtract(Amount other) {
+		int commonScale = Math.max(scale, other.scale);
+
+		return new Amount(Math.subtractExact(unscaledAt(commonScale), other.unscaledAt(commonScale)), commonScale);
+	}
+
+	/**
+	 * This amount at the given scale, rounding half even if digits are dropped.
+	 */
+	public Amount rescale(int newScale) {
+		return new Amount(unscaledAt(newScale), newScale);
+	}
+
+	/**
+	 * This amount divided by a count, rounded half even to the given scale.
+	 * e.g. a mean is total.dividedBy(count, 2)
+	 */
+	public Amount dividedBy(long divisor, int resultScale) {
+		try {
+			if (resultScale >= scale) {
+				return new Amount(divideHalfEven(Math.multiplyExact(unscaled, powerOfTen(resultScale - scale)), divisor), resultScale);
+			}
+
+			return new Amount(divideHalfEven(unscaled, Math.multiplyExact(divisor, powerOfTen(scale - resultScale))), resultScale);
+		}
+		catch (ArithmeticException e) {
+			if (divisor == 0) {
+				throw e;
+			}
+
+			//Too large for long arithmetic, so fall back to BigDecimal
+			return of(toBigDecimal().divide(BigDecimal.valueOf(divisor), resultScale, RoundingMode.HALF_EVEN));
+		}
+	}
+
+	@Override
+	public int compareTo(Amount other) {
+		if (scale == other.scale) {
+			return Long.compare(unscaled, other.unscaled);
+		}
+
+		try {
+			int commonScale = Math.max(scale, other.scale);
+			return Long.compare(unscaledAt(commonScale), other.unscaledAt(commonScale));
+		}
+		catch (ArithmeticException e) {
+			return toBigDecimal().compareTo(other.toBigDecimal());
+		}
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Amount)) {
+			return false;
+		}
+
+		return unscaled == ((Amount) other).unscaled && scale == ((Amount) other).scale;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(unscaled) + scale;
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+
+	private static long powerOfTen(int exponent) {
+		if (exponent >= POWERS_OF_TEN.length) {
+			throw new ArithmeticException("10^" + exponent + " does not fit in a long");
+		}
+
+		return POWERS_OF_TEN[exponent];
+	}
+
+	private static long divideHalfEven(long dividend, long divisor) {
+		long quotient = dividend / divisor;
+		long remainder = dividend % divisor;
+
+		if (remainder == 0) {
+			return quotient;
+		}
+
+		//Compare twice the remainder to the divisor without overflowing
+		long absRemainder = Math.abs(remainder);
+		long absDivisor = Math.abs(divisor);
+		int half = Long.compare(absRemainder, absDivisor - absRemainder);
+		long away = (dividend < 0) == (divisor < 0) ? 1 : -1;
+
+		if (half > 0 || (half == 0 && (quotient & 1) != 0)) {
+			return quotient + away;
+		}
+
+		return quotient;
+	}
+}
@@ -0,0 +1,77 @@
+package service.models;
+
+/**
+ * Describes one entry held in one of the caches, for the admin endpoints.
+ */
+public class CacheEntryInfo {
+	private String cacheName;
+	private String symbol;
+	private boolean found;
+	private long ageSeconds;
+	private long idleSeconds;
+	private int sizeBytes;
+
+	public CacheEntryInfo() {
+
+	}
+
+	public String getCacheName() {
+		return cacheName;
+	}
+
+	public void setCacheName(String cacheName) {
+		this.cacheName = cacheName;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	/**
+	 * False if the entry is a cached not found response.
+	 */
+	public boolean isFound() {
+		return found;
+	}
+
+	public void setFound(boolean found) {
+		this.found = found;
+	}
+
+	/**
+	 * Seconds since the entry was loaded or refreshed.
+	 */
+	public long getAgeSeconds() {
+		return ageSeconds;
+	}
+
+	public void setAgeSeconds(long ageSeconds) {
+		this.ageSeconds = ageSeconds;
+	}
+
+	/**
+	 * Seconds since a client last read the entry.
+	 */
+	public long getIdleSeconds() {
+		return idleSeconds;
+	}
+
+	public void setIdleSeconds(long idleSeconds) {
+		this.idleSeconds = idleSeconds;
+	}
+
+	/**
+	 * Size of the value in the compact binary encoding, a guide to its share of the cache.
+	 */
+	public int getSizeBytes() {
+		return sizeBytes;
+	}
+
+	public void setSizeBytes(int sizeBytes) {
+		this.sizeBytes = sizeBytes;
+	}
+}
@@ -0,0 +1,74 @@
+package service.models;
+
+/**
+ * What a bulk CSV import loaded into the caches.
+ */
+public class CsvImportResult {
+	private int files;
+	private long rows;
+	private long rejectedRows;
+	private int histories;
+	private int stocks;
+	private long elapsedMillis;
+
+	public CsvImportResult() {
+
+	}
+
+	public int getFiles() {
+		return files;
+	}
+
+	public void setFiles(int files) {
+		this.files = files;
+	}
+
+	public long getRows() {
+		return rows;
+	}
+
+	public void setRows(long rows) {
+		this.rows = rows;
+	}
+
+	/**
+	 * Rows that could not be parsed and were skipped.
+	 */
+	public long getRejectedRows() {
+		return rejectedRows;
+	}
+
+	public void setRejectedRows(long rejectedRows) {
+		this.rejectedRows = rejectedRows;
+	}
+
+	/**
+	 * Number of symbols whose dividend history was cached.
+	 */
+	public int getHistories() {
+		return histories;
+	}
+
+	public void setHistories(int histories) {
+		this.histories = histories;
+	}
+
+	/**
+	 * Number of symbols whose stock data was cached.
+	 */
+	public int getStocks() {
+		return stocks;
+	}
+
+	public void setStocks(int stocks) {
+		this.stocks = stocks;
+	}
+
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+}
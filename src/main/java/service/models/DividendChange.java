@@ -0,0 +1,79 @@
+package service.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A change to a stock's dividend, as pushed to stream subscribers.
+ * Holds the new values along with the names of the fields that changed.
+ */
+public class DividendChange {
+	private String symbol;
+	private List<String> changedFields;
+	private BigDecimal lastDividend;
+	private LocalDate lastExDividendDate;
+	private BigDecimal estimatedForwardAnnualDividend;
+	private LocalDate latestPaymentDate;
+	private BigDecimal latestPaymentDividend;
+
+	public DividendChange() {
+
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public List<String> getChangedFields() {
+		return changedFields;
+	}
+
+	public void setChangedFields(List<String> changedFields) {
+		this.changedFields = changedFields;
+	}
+
+	public BigDecimal getLastDividend() {
+		return lastDividend;
+	}
+
+	public void setLastDividend(BigDecimal lastDividend) {
+		this.lastDividend = lastDividend;
+	}
+
+	public LocalDate getLastExDividendDate() {
+		return lastExDividendDate;
+	}
+
+	public void setLastExDividendDate(LocalDate lastExDividendDate) {
+		this.lastExDividendDate = lastExDividendDate;
+	}
+
+	public BigDecimal getEstimatedForwardAnnualDividend() {
+		return estimatedForwardAnnualDividend;
+	}
+
+	public void setEstimatedForwardAnnualDividend(BigDecimal estimatedForwardAnnualDividend) {
+		this.estimatedForwardAnnualDividend = estimatedForwardAnnualDividend;
+	}
+
+	public LocalDate getLatestPaymentDate() {
+		return latestPaymentDate;
+	}
+
+	public void setLatestPaymentDate(LocalDate latestPaymentDate) {
+		this.latestPaymentDate = latestPaymentDate;
+	}
+
+	public BigDecimal getLatestPaymentDividend() {
+		return latestPaymentDividend;
+	}
+
+	public void setLatestPaymentDividend(BigDecimal latestPaymentDividend) {
+		this.latestPaymentDividend = latestPaymentDividend;
+	}
+}
@@ -3,12 +3,17 @@ package service.models;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Amounts are held as fixed point Amounts and only become BigDecimals at the JSON boundary.
+ */
 public class DividendData {
 	private LocalDate lastPayDate;
 	private LocalDate lastExDividendDate;
-	private BigDecimal lastDividend;
-	private BigDecimal estimatedForwardAnnualDividend;
-	private BigDecimal estimatedForwardAnnualYield;
+	private Amount lastDividend;
+	private Amount estimatedForwardAnnualDividend;
+	private Amount estimatedForwardAnnualYield;
 	private int yearsPaying;
 	
 	public DividendData() {
@@ -28,21 +33,42 @@ public class DividendData {
 		this.lastExDividendDate = lastExDividendDate;
 	}
 	public BigDecimal getLastDividend() {
-		return lastDividend;
+		return lastDividend != null ? lastDividend.toBigDecimal() : null;
 	}
 	public void setLastDividend(BigDecimal lastDividend) {
+		this.lastDividend = Amount.of(lastDividend);
+	}
+	@JsonIgnore
+	public Amount getLastDividendAmount() {
+		return lastDividend;
+	}
+	public void setLastDividendAmount(Amount lastDividend) {
 		this.lastDividend = lastDividend;
 	}
 	public BigDecimal getEstimatedForwardAnnualDividend() {
-		return estimatedForwardAnnualDividend;
+		return estimatedForwardAnnualDividend != null ? estimatedForwardAnnualDividend.toBigDecimal() : null;
 	}
 	public void setEstimatedForwardAnnualDividend(BigDecimal estimatedForwardAnnualDividend) {
+		this.estimatedForwardAnnualDividend = Amount.of(estimatedForwardAnnualDividend);
+	}
+	@JsonIgnore
+	public Amount getEstimatedForwardAnnualDividendAmount() {
+		return estimatedForwardAnnualDividend;
+	}
+	public void setEstimatedForwardAnnualDividendAmount(Amount estimatedForwardAnnualDividend) {
 		this.estimatedForwardAnnualDividend = estimatedForwardAnnualDividend;
 	}
 	public BigDecimal getEstimatedForwardAnnualYield() {
-		return estimatedForwardAnnualYield;
+		return estimatedForwardAnnualYield != null ? estimatedForwardAnnualYield.toBigDecimal() : null;
 	}
 	public void setEstimatedForwardAnnualYield(BigDecimal estimatedForwardAnnualYield) {
+		this.estimatedForwardAnnualYield = Amount.of(estimatedForwardAnnualYield);
+	}
+	@JsonIgnore
+	public Amount getEstimatedForwardAnnualYieldAmount() {
+		return estimatedForwardAnnualYield;
+	}
+	public void setEstimatedForwardAnnualYieldAmount(Amount estimatedForwardAnnualYield) {
 		this.estimatedForwardAnnualYield = estimatedForwardAnnualYield;
 	}
 	public int getYearsPaying() {
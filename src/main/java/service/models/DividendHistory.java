@@ -3,9 +3,15 @@ package service.models;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Payments are kept in date order as they are added, so a cached history is never changed by reading it and
+ * can be read from several threads at once.
+ */
 public class DividendHistory {
 	private List<DividendPayment> dividends;
 	
@@ -13,26 +19,52 @@ public class DividendHistory {
 		dividends = new ArrayList<DividendPayment>();
 	}
 	
+	/**
+	 * The payments in date order, as a read only view.
+	 */
 	public List<DividendPayment> getDividends() {
-		dividends.sort((d1, d2) -> d1.getDate().compareTo(d2.getDate()));
-		
-		return dividends;
+		return Collections.unmodifiableList(dividends);
 	}
 	
 	public void addDividendPayment(LocalDate date, BigDecimal dividend) {
-		dividends.add(new DividendPayment(date, dividend));
+		addDividendPayment(date, Amount.of(dividend));
+	}
+
+	/**
+	 * Adds the payment after any others on the same date, found with a binary search.
+	 */
+	public void addDividendPayment(LocalDate date, Amount dividend) {
+		int low = 0;
+		int high = dividends.size();
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+
+			if (dividends.get(middle).getDate().isAfter(date)) {
+				high = middle;
+			}
+			else {
+				low = middle + 1;
+			}
+		}
+
+		dividends.add(low, new DividendPayment(date, dividend));
 	}
 
 
-	public class DividendPayment {
+	/**
+	 * Static so payments do not each hold a reference back to the history.
+	 * The amount is held as a fixed point Amount and only becomes a BigDecimal at the JSON boundary.
+	 */
+	public static class DividendPayment {
 		private LocalDate date;
-		private BigDecimal dividend;
+		private Amount dividend;
 		
 		public DividendPayment() {
 			
 		}
 
-		public DividendPayment(LocalDate date, BigDecimal dividend) {
+		public DividendPayment(LocalDate date, Amount dividend) {
 			this.date = date;
 			this.dividend = dividend;
 		}
@@ -42,6 +74,11 @@ public class DividendHistory {
 		}
 
 		public BigDecimal getDividend() {
+			return dividend != null ? dividend.toBigDecimal() : null;
+		}
+
+		@JsonIgnore
+		public Amount getDividendAmount() {
 			return dividend;
 		}
 	}
@@ -1,30 +1,57 @@
 package service.models;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Amounts are held as fixed point Amounts and only become BigDecimals at the JSON boundary.
+ * The close date is only known for data read from upstream, it is left out of the JSON but kept in the binary encoding
+ * so instances sharing a cache tier record the same close.
+ */
 public class FundamentalData {
-	private BigDecimal lastOpen;
-	private BigDecimal lastClose;
+	private Amount lastOpen;
+	private Amount lastClose;
 	private double volume;
-	private BigDecimal PeRatio;
+	private Amount PeRatio;
+	private LocalDate closeDate;
 	
 	public FundamentalData() {
 		
 	}
 
 	public BigDecimal getLastOpen() {
-		return lastOpen;
+		return lastOpen != null ? lastOpen.toBigDecimal() : null;
 	}
 
 	public void setLastOpen(BigDecimal lastOpen) {
+		this.lastOpen = Amount.of(lastOpen);
+	}
+
+	@JsonIgnore
+	public Amount getLastOpenAmount() {
+		return lastOpen;
+	}
+
+	public void setLastOpenAmount(Amount lastOpen) {
 		this.lastOpen = lastOpen;
 	}
 
 	public BigDecimal getLastClose() {
-		return lastClose;
+		return lastClose != null ? lastClose.toBigDecimal() : null;
 	}
 
 	public void setLastClose(BigDecimal lastClose) {
+		this.lastClose = Amount.of(lastClose);
+	}
+
+	@JsonIgnore
+	public Amount getLastCloseAmount() {
+		return lastClose;
+	}
+
+	public void setLastCloseAmount(Amount lastClose) {
 		this.lastClose = lastClose;
 	}
 
@@ -37,12 +64,33 @@ public class FundamentalData {
 	}
 
 	public BigDecimal getPeRatio() {
-		return PeRatio;
+		return PeRatio != null ? PeRatio.toBigDecimal() : null;
 	}
 
 	public void setPeRatio(BigDecimal peRatio) {
+		PeRatio = Amount.of(peRatio);
+	}
+
+	@JsonIgnore
+	public Amount getPeRatioAmount() {
+		return PeRatio;
+	}
+
+	public void setPeRatioAmount(Amount peRatio) {
 		PeRatio = peRatio;
 	}
+
+	/**
+	 * The trading day the last close belongs to, or null if it is not known.
+	 */
+	@JsonIgnore
+	public LocalDate getCloseDate() {
+		return closeDate;
+	}
+
+	public void setCloseDate(LocalDate closeDate) {
+		this.closeDate = closeDate;
+	}
 	
 	
 }
@@ -0,0 +1,135 @@
+package service.models;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Aggregate dividend figures for the cached stocks in a sector or industry.
+ * Yields are percentages, over the stocks that have an estimated forward yield.
+ * Figures are held as fixed point Amounts and only become BigDecimals at the JSON boundary.
+ */
+public class SectorSummary {
+	private String name;
+	private int symbolCount;
+	private Amount medianForwardYield;
+	private Amount meanForwardYield;
+	private Amount averageYearsPaying;
+	private List<Payer> topPayers;
+
+	public SectorSummary() {
+
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getSymbolCount() {
+		return symbolCount;
+	}
+
+	public void setSymbolCount(int symbolCount) {
+		this.symbolCount = symbolCount;
+	}
+
+	public BigDecimal getMedianForwardYield() {
+		return medianForwardYield != null ? medianForwardYield.toBigDecimal() : null;
+	}
+
+	public void setMedianForwardYield(BigDecimal medianForwardYield) {
+		this.medianForwardYield = Amount.of(medianForwardYield);
+	}
+
+	@JsonIgnore
+	public Amount getMedianForwardYieldAmount() {
+		return medianForwardYield;
+	}
+
+	public void setMedianForwardYieldAmount(Amount medianForwardYield) {
+		this.medianForwardYield = medianForwardYield;
+	}
+
+	public BigDecimal getMeanForwardYield() {
+		return meanForwardYield != null ? meanForwardYield.toBigDecimal() : null;
+	}
+
+	public void setMeanForwardYield(BigDecimal meanForwardYield) {
+		this.meanForwardYield = Amount.of(meanForwardYield);
+	}
+
+	@JsonIgnore
+	public Amount getMeanForwardYieldAmount() {
+		return meanForwardYield;
+	}
+
+	public void setMeanForwardYieldAmount(Amount meanForwardYield) {
+		this.meanForwardYield = meanForwardYield;
+	}
+
+	public BigDecimal getAverageYearsPaying() {
+		return averageYearsPaying != null ? averageYearsPaying.toBigDecimal() : null;
+	}
+
+	public void setAverageYearsPaying(BigDecimal averageYearsPaying) {
+		this.averageYearsPaying = Amount.of(averageYearsPaying);
+	}
+
+	@JsonIgnore
+	public Amount getAverageYearsPayingAmount() {
+		return averageYearsPaying;
+	}
+
+	public void setAverageYearsPayingAmount(Amount averageYearsPaying) {
+		this.averageYearsPaying = averageYearsPaying;
+	}
+
+	public List<Payer> getTopPayers() {
+		return topPayers;
+	}
+
+	public void setTopPayers(List<Payer> topPayers) {
+		this.topPayers = topPayers;
+	}
+
+	/**
+	 * One of the highest yielding stocks in the group.
+	 */
+	public static class Payer {
+		private String symbol;
+		private String name;
+		private Amount estimatedForwardAnnualYield;
+
+		public Payer() {
+
+		}
+
+		public Payer(String symbol, String name, Amount estimatedForwardAnnualYield) {
+			this.symbol = symbol;
+			this.name = name;
+			this.estimatedForwardAnnualYield = estimatedForwardAnnualYield;
+		}
+
+		public String getSymbol() {
+			return symbol;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public BigDecimal getEstimatedForwardAnnualYield() {
+			return estimatedForwardAnnualYield != null ? estimatedForwardAnnualYield.toBigDecimal() : null;
+		}
+
+		@JsonIgnore
+		public Amount getEstimatedForwardAnnualYieldAmount() {
+			return estimatedForwardAnnualYield;
+		}
+	}
+}
@@ -1,5 +1,12 @@
 package service.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Basic information about a stock.
+ *
+ * The exchange, industry and sector are stored as their StringDictionary instances, however the model is built.
+ */
 public class StockData {
 	private String name;
 	private String symbol;
@@ -32,7 +39,7 @@ public class StockData {
 	}
 
 	public void setExchange(String exchange) {
-		this.exchange = exchange;
+		this.exchange = StringDictionary.EXCHANGES.canonical(exchange);
 	}
 
 	public String getIndustry() {
@@ -40,7 +47,7 @@ public class StockData {
 	}
 
 	public void setIndustry(String industry) {
-		this.industry = industry;
+		this.industry = StringDictionary.INDUSTRIES.canonical(industry);
 	}
 
 	public String getSector() {
@@ -48,7 +55,22 @@ public class StockData {
 	}
 
 	public void setSector(String sector) {
-		this.sector = sector;
+		this.sector = StringDictionary.SECTORS.canonical(sector);
+	}
+
+	/**
+	 * Id of the industry in StringDictionary.INDUSTRIES, or -1 if there is none.
+	 */
+	@JsonIgnore
+	public int getIndustryId() {
+		return StringDictionary.INDUSTRIES.id(industry);
 	}
 
+	/**
+	 * Id of the sector in StringDictionary.SECTORS, or -1 if there is none.
+	 */
+	@JsonIgnore
+	public int getSectorId() {
+		return StringDictionary.SECTORS.id(sector);
+	}
 }
@@ -0,0 +1,60 @@
+package service.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One line of a bulk export, everything held for a single symbol.
+ * Parts that are not cached, or not part of the export, are left out.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockExport {
+	private String symbol;
+	private StockData stockData;
+	private DividendData dividendData;
+	private FundamentalData fundamentalData;
+	private DividendHistory dividendHistory;
+
+	public StockExport() {
+
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public StockData getStockData() {
+		return stockData;
+	}
+
+	public void setStockData(StockData stockData) {
+		this.stockData = stockData;
+	}
+
+	public DividendData getDividendData() {
+		return dividendData;
+	}
+
+	public void setDividendData(DividendData dividendData) {
+		this.dividendData = dividendData;
+	}
+
+	public FundamentalData getFundamentalData() {
+		return fundamentalData;
+	}
+
+	public void setFundamentalData(FundamentalData fundamentalData) {
+		this.fundamentalData = fundamentalData;
+	}
+
+	public DividendHistory getDividendHistory() {
+		return dividendHistory;
+	}
+
+	public void setDividendHistory(DividendHistory dividendHistory) {
+		this.dividendHistory = dividendHistory;
+	}
+}
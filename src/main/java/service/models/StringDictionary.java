@@ -0,0 +1,83 @@
+package service.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Canonical copies of frequently repeated strings, so every cached model shares one instance of e.g. "Technology".
+ *
+ * Each distinct value also gets a small id in the order it was first seen, which stays the same for the life of the
+ * process, so values can be grouped and compared with ints instead of strings.
+ * Values are never removed, so only use a dictionary for fields with a bounded set of values.
+ */
+public final class StringDictionary {
+	public static final StringDictionary EXCHANGES = new StringDictionary();
+	public static final StringDictionary SECTORS = new StringDictionary();
+	public static final StringDictionary INDUSTRIES = new StringDictionary();
+
+	private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final List<String> values = new ArrayList<>();
+
+	/**
+	 * The canonical instance equal to the value, or null for null.
+	 *
+	 * @param value
+	 */
+	public String canonical(String value) {
+		return value != null ? entry(value).value : null;
+	}
+
+	/**
+	 * The id of the value, or -1 for null.
+	 *
+	 * @param value
+	 */
+	public int id(String value) {
+		return value != null ? entry(value).id : -1;
+	}
+
+	/**
+	 * The value with the id, or null if there is none.
+	 *
+	 * @param id
+	 */
+	public String value(int id) {
+		synchronized (values) {
+			return id >= 0 && id < values.size() ? values.get(id) : null;
+		}
+	}
+
+	/**
+	 * Number of distinct values seen.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	private Entry entry(String value) {
+		Entry entry = entries.get(value);
+
+		if (entry == null) {
+			entry = entries.computeIfAbsent(value, v -> {
+				synchronized (values) {
+					values.add(v);
+					return new Entry(v, values.size() - 1);
+				}
+			});
+		}
+
+		return entry;
+	}
+
+	private static final class Entry {
+		final String value;
+		final int id;
+
+		Entry(String value, int id) {
+			this.value = value;
+			this.id = id;
+		}
+	}
+}
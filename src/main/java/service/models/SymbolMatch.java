@@ -0,0 +1,34 @@
+package service.models;
+
+/**
+ * A symbol found by a symbol search, with the company name if it is known.
+ */
+public class SymbolMatch {
+	private String symbol;
+	private String name;
+
+	public SymbolMatch() {
+
+	}
+
+	public SymbolMatch(String symbol, String name) {
+		this.symbol = symbol;
+		this.name = name;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	public void setSymbol(String symbol) {
+		this.symbol = symbol;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+}
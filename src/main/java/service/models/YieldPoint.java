@@ -0,0 +1,59 @@
+package service.models;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A stock's trailing twelve month dividend and yield as of a day's last close.
+ * Amounts are held as fixed point Amounts and only become BigDecimals at the JSON boundary.
+ */
+public class YieldPoint {
+	private LocalDate date;
+	private Amount lastClose;
+	private Amount trailingAnnualDividend;
+	private Amount trailingAnnualYield;
+
+	public YieldPoint() {
+
+	}
+
+	public YieldPoint(LocalDate date, Amount lastClose, Amount trailingAnnualDividend, Amount trailingAnnualYield) {
+		this.date = date;
+		this.lastClose = lastClose;
+		this.trailingAnnualDividend = trailingAnnualDividend;
+		this.trailingAnnualYield = trailingAnnualYield;
+	}
+
+	public LocalDate getDate() {
+		return date;
+	}
+
+	public BigDecimal getLastClose() {
+		return lastClose != null ? lastClose.toBigDecimal() : null;
+	}
+
+	@JsonIgnore
+	public Amount getLastCloseAmount() {
+		return lastClose;
+	}
+
+	public BigDecimal getTrailingAnnualDividend() {
+		return trailingAnnualDividend != null ? trailingAnnualDividend.toBigDecimal() : null;
+	}
+
+	@JsonIgnore
+	public Amount getTrailingAnnualDividendAmount() {
+		return trailingAnnualDividend;
+	}
+
+	public BigDecimal getTrailingAnnualYield() {
+		return trailingAnnualYield != null ? trailingAnnualYield.toBigDecimal() : null;
+	}
+
+	@JsonIgnore
+	public Amount getTrailingAnnualYieldAmount() {
+		return trailingAnnualYield;
+	}
+}
@@ -0,0 +1,115 @@
+package service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import service.models.DividendData;
+import service.models.DividendHistory;
+import service.models.FundamentalData;
+import service.models.StockData;
+
+public class BinaryModelCodecTests {
+	private final BinaryModelCodec codec = new BinaryModelCodec();
+	private final ObjectMapper mapper = new ObjectMapper()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@Test
+	public void testStockDataRoundTrip() throws IOException {
+		StockData stockData = new StockData();
+		stockData.setSymbol("AAPL");
+		stockData.setName("Apple Inc");
+		stockData.setSector("Technology");
+
+		assertRoundTrip(stockData, StockData.class);
+	}
+
+	@Test
+	public void testDividendDataRoundTrip() throws IOException {
+		DividendData dividendData = new DividendData();
+		dividendData.setEstimatedForwardAnnualDividend(new BigDecimal("2.92"));
+		dividendData.setEstimatedForwardAnnualYield(new BigDecimal("1.33"));
+		dividendData.setLastDividend(new BigDecimal("0.730"));
+		dividendData.setLastExDividendDate(LocalDate.of(2018, Month.AUGUST, 10));
+		dividendData.setYearsPaying(7);
+
+		assertRoundTrip(dividendData, DividendData.class);
+	}
+
+	@Test
+	public void testFundamentalDataRoundTrip() throws IOException {
+		FundamentalData fundamentalData = new FundamentalData();
+		fundamentalData.setLastClose(new BigDecimal("219.70"));
+		fundamentalData.setLastOpen(new BigDecimal("217.15"));
+		fundamentalData.setVolume(27213290);
+
+		assertRoundTrip(fundamentalData, FundamentalData.class);
+	}
+
+	@Test
+	public void testFundamentalDataKeepsCloseDate() throws IOException {
+		FundamentalData fundamentalData = new FundamentalData();
+		fundamentalData.setLastClose(new BigDecimal("219.70"));
+		fundamentalData.setCloseDate(LocalDate.of(2018, 8, 31));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.encode(fundamentalData, out);
+
+		FundamentalData decoded = codec.decode(new ByteArrayInputStream(out.toByteArray()), FundamentalData.class);
+
+		assertThat(decoded.getCloseDate()).isEqualTo(LocalDate.of(2018, 8, 31));
+		assertThat(mapper.writeValueAsString(decoded)).doesNotContain("closeDate");
+	}
+
+	@Test
+	public void testAmountScaleOutsideByteRangeRoundTrips() throws IOException {
+		FundamentalData fundamentalData = new FundamentalData();
+		fundamentalData.setLastClose(new BigDecimal("1E-200"));
+		fundamentalData.setPeRatio(new BigDecimal("1E+150"));
+
+		assertRoundTrip(fundamentalData, FundamentalData.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFractionalVolumeIsRejected() throws IOException {
+		FundamentalData fundamentalData = new FundamentalData();
+		fundamentalData.setVolume(1.5);
+
+		codec.encode(fundamentalData, new ByteArrayOutputStream());
+	}
+
+	@Test
+	public void testDividendHistoryIsCompact() throws IOException {
+		DividendHistory history = new DividendHistory();
+		LocalDate date = LocalDate.of(1968, Month.FEBRUARY, 9);
+		for (int i = 0; i < 200; i++) {
+			history.addDividendPayment(date.plusMonths(3 * i), new BigDecimal("0.1525").add(BigDecimal.valueOf(i, 4)));
+		}
+
+		byte[] binary = assertRoundTrip(history, DividendHistory.class);
+
+		assertThat(binary.length * 5).isLessThan(mapper.writeValueAsBytes(history).length);
+	}
+
+	private <T> byte[] assertRoundTrip(T model, Class<T> type) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.encode(model, out);
+		byte[] binary = out.toByteArray();
+
+		T decoded = codec.decode(new ByteArrayInputStream(binary), type);
+
+		assertThat(mapper.writeValueAsString(decoded)).isEqualTo(mapper.writeValueAsString(model));
+		return binary;
+	}
+}
@@ -0,0 +1,115 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import service.models.DividendHistory;
+
+public class CacheRefresherTests {
+	private final SharedCacheStore shared = new InMemorySharedCacheStore();
+	private final HTMLUnitDataSource dataSource = mock(HTMLUnitDataSource.class);
+	private final ImportedDividends importedDividends = new ImportedDividends();
+
+	private CacheRefresher node(CacheManager cacheManager) {
+		StockCacheView cacheView = new StockCacheView();
+		ReflectionTestUtils.setField(cacheView, "cacheManager", cacheManager);
+
+		CacheRefresher refresher = new CacheRefresher();
+		ReflectionTestUtils.setField(refresher, "dataSource", dataSource);
+		ReflectionTestUtils.setField(refresher, "cacheManager", cacheManager);
+		ReflectionTestUtils.setField(refresher, "cacheView", cacheView);
+		ReflectionTestUtils.setField(refresher, "importedDividends", importedDividends);
+		return refresher;
+	}
+
+	private CacheManager cacheManager() {
+		CacheManagement management = new CacheManagement(60000, 5000);
+		ReflectionTestUtils.setField(management, "sharedCacheStore", shared);
+		return management.cacheManager();
+	}
+
+	@Test
+	public void testOnlyOneInstanceFetches() throws Exception {
+		DividendHistory history = new DividendHistory();
+		history.addDividendPayment(LocalDate.of(2018, 3, 14), new BigDecimal("0.39"));
+		given(dataSource.createDividendHistory("KO")).willReturn(history);
+
+		CacheManager firstCaches = cacheManager();
+		CacheManager secondCaches = cacheManager();
+		firstCaches.getCache(StockCacheView.DIVIDEND_HISTORY).put("KO", ResponseEntity.ok(new DividendHistory()));
+		secondCaches.getCache(StockCacheView.DIVIDEND_HISTORY).get("KO");
+		Thread.sleep(5);
+
+		assertEquals(true, node(firstCaches).refresh(StockCacheView.DIVIDEND_HISTORY, "ko"));
+		assertEquals(true, node(secondCaches).refresh(StockCacheView.DIVIDEND_HISTORY, "KO"));
+
+		verify(dataSource, times(1)).createDividendHistory("KO");
+		ResponseEntity<?> taken = (ResponseEntity<?>) secondCaches.getCache(StockCacheView.DIVIDEND_HISTORY).get("KO").get();
+		assertEquals(1, ((DividendHistory) taken.getBody()).getDividends().size());
+	}
+
+	@Test
+	public void testSkipsWhileAnotherInstanceHoldsTheLease() {
+		CacheManager caches = cacheManager();
+		shared.tryLease("dividendstock:v4:fundamentalData:KO", "second", 5000);
+
+		assertEquals(0, node(caches).refreshStockPage("KO", true));
+		verify(dataSource, never()).createStockPage("KO");
+	}
+
+	@Test
+	public void testExplicitReloadAlwaysFetches() {
+		CacheManager caches = cacheManager();
+		caches.getCache(StockCacheView.DIVIDEND_HISTORY).put("KO", ResponseEntity.ok(new DividendHistory()));
+		DividendHistory history = new DividendHistory();
+		given(dataSource.createDividendHistory("KO")).willReturn(history);
+
+		node(caches).refreshAll("KO");
+
+		verify(dataSource).createDividendHistory("KO");
+		assertSame(history, ((ResponseEntity<?>) caches.getCache(StockCacheView.DIVIDEND_HISTORY).get("KO").get()).getBody());
+	}
+
+	@Test
+	public void testRefreshKeepsImportedPayments() {
+		DividendHistory imported = new DividendHistory();
+		imported.addDividendPayment(LocalDate.of(1990, 3, 14), new BigDecimal("0.11"));
+		importedDividends.add("KO", imported.getDividends());
+		DividendHistory scraped = new DividendHistory();
+		scraped.addDividendPayment(LocalDate.of(2018, 3, 14), new BigDecimal("0.39"));
+		given(dataSource.createDividendHistory("KO")).willReturn(scraped);
+		CacheManager caches = cacheManager();
+
+		node(caches).refreshAll("KO");
+
+		ResponseEntity<?> cached = (ResponseEntity<?>) caches.getCache(StockCacheView.DIVIDEND_HISTORY).get("KO").get();
+		assertEquals(2, ((DividendHistory) cached.getBody()).getDividends().size());
+	}
+
+	@Test
+	public void testGetOrLoadCachesNotFound() {
+		CacheManager caches = cacheManager();
+		CacheRefresher refresher = node(caches);
+
+		assertNull(refresher.getOrLoad(StockCacheView.DIVIDEND_HISTORY, "nope", DividendHistory.class));
+		assertNull(refresher.getOrLoad(StockCacheView.DIVIDEND_HISTORY, "NOPE", DividendHistory.class));
+
+		verify(dataSource, times(1)).createDividendHistory("NOPE");
+		ResponseEntity<?> cached = (ResponseEntity<?>) caches.getCache(StockCacheView.DIVIDEND_HISTORY).get("NOPE").get();
+		assertEquals(404, cached.getStatusCodeValue());
+	}
+}
@@ -0,0 +1,143 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import service.models.DividendChange;
+
+public class DividendChangeBroadcasterTests {
+
+	private final DividendChangeBroadcaster broadcaster = new DividendChangeBroadcaster(60000, 2, 60000, 1, 1);
+
+	@After
+	public void tearDown() {
+		broadcaster.shutdown();
+	}
+
+	@Test(timeout = 10000)
+	public void testSlowSubscriberIsDisconnectedWithoutBlockingPublisher() throws Exception {
+		BlockingEmitter emitter = new BlockingEmitter();
+		broadcaster.subscribe(Collections.singletonList("KO"), emitter);
+		emitter.block = true;
+
+		broadcaster.publish(change("KO"));
+		assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+
+		//The drain holds the emitter while it is stuck sending, so this would hang if publish completed the emitter
+		for (int i = 0; i < 3; i++) {
+			broadcaster.publish(change("KO"));
+		}
+
+		assertEquals(0, broadcaster.getSubscriberCount());
+		assertFalse(emitter.completed.await(100, TimeUnit.MILLISECONDS));
+
+		emitter.release.countDown();
+		assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test(timeout = 10000)
+	public void testHeartbeatIsDroppedWhenQueueIsFull() throws Exception {
+		BlockingEmitter emitter = new BlockingEmitter();
+		broadcaster.subscribe(Collections.singletonList("KO"), emitter);
+		emitter.block = true;
+
+		broadcaster.publish(change("KO"));
+		assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+		broadcaster.publish(change("KO"));
+		broadcaster.publish(change("KO"));
+
+		broadcaster.sendHeartbeats();
+
+		assertEquals(1, broadcaster.getSubscriberCount());
+		emitter.release.countDown();
+		assertFalse(emitter.completed.await(200, TimeUnit.MILLISECONDS));
+	}
+
+	@Test(timeout = 10000)
+	public void testSubscriberIsDroppedWhenSendersAreFull() throws Exception {
+		BlockingEmitter slow = new BlockingEmitter();
+		BlockingEmitter first = new BlockingEmitter();
+		BlockingEmitter second = new BlockingEmitter();
+		broadcaster.subscribe(Collections.singletonList("KO"), slow);
+		broadcaster.subscribe(Collections.singletonList("PEP"), first);
+		broadcaster.subscribe(Collections.singletonList("PEP"), second);
+		slow.block = true;
+
+		broadcaster.publish(change("KO"));
+		assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+
+		//The only sender is stuck, one PEP drain fits the backlog and the other is rejected
+		broadcaster.publish(change("PEP"));
+
+		assertEquals(2, broadcaster.getSubscriberCount());
+		assertEquals(1, first.completed.getCount() + second.completed.getCount());
+
+		slow.release.countDown();
+	}
+
+	@Test(timeout = 10000)
+	public void testFailedSendUnsubscribes() throws Exception {
+		SseEmitter emitter = new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				if (broadcaster.getSubscriberCount() > 0) {
+					throw new IOException("Broken pipe");
+				}
+			}
+		};
+		broadcaster.subscribe(Collections.singletonList("KO"), emitter);
+		assertEquals(1, broadcaster.getSubscriberCount());
+
+		broadcaster.publish(change("KO"));
+
+		while (broadcaster.getSubscriberCount() > 0) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static DividendChange change(String symbol) {
+		DividendChange change = new DividendChange();
+		change.setSymbol(symbol);
+		return change;
+	}
+
+	/**
+	 * Holds its monitor while sending, like a real emitter writing to a slow socket, once told to block.
+	 */
+	private static class BlockingEmitter extends SseEmitter {
+		final CountDownLatch sending = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch completed = new CountDownLatch(1);
+		volatile boolean block;
+
+		@Override
+		public synchronized void send(SseEventBuilder builder) throws IOException {
+			if (block) {
+				sending.countDown();
+
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+
+		@Override
+		public synchronized void complete() {
+			completed.countDown();
+			super.complete();
+		}
+	}
+}
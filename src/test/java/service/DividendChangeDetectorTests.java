@@ -0,0 +1,99 @@
+package service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.ResponseEntity;
+
+import service.models.DividendChange;
+import service.models.DividendData;
+import service.models.DividendHistory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DividendChangeDetectorTests {
+
+	@Mock
+	private DividendChangeBroadcaster broadcaster;
+
+	@InjectMocks
+	private DividendChangeDetector detector;
+
+	private Cache dividendDataCache;
+	private Cache dividendHistoryCache;
+
+	@Before
+	public void setup() {
+		dividendDataCache = new ObservedCache(new ConcurrentMapCache("dividendData"), Collections.singletonList(detector));
+		dividendHistoryCache = new ObservedCache(new ConcurrentMapCache("dividendHistory"), Collections.singletonList(detector));
+	}
+
+	@Test
+	public void testFirstValueIsNotAChange() {
+		dividendDataCache.put("AAPL", ResponseEntity.ok(dividendData("0.73", LocalDate.of(2018, Month.AUGUST, 10))));
+
+		verify(broadcaster, never()).publish(any());
+	}
+
+	@Test
+	public void testUnchangedValueAfterClearIsNotAChange() {
+		dividendDataCache.put("AAPL", ResponseEntity.ok(dividendData("0.73", LocalDate.of(2018, Month.AUGUST, 10))));
+		dividendDataCache.clear();
+		dividendDataCache.put("aapl", ResponseEntity.ok(dividendData("0.730", LocalDate.of(2018, Month.AUGUST, 10))));
+
+		verify(broadcaster, never()).publish(any());
+	}
+
+	@Test
+	public void testDeclaredDividendIsPublished() {
+		dividendDataCache.put("AAPL", ResponseEntity.ok(dividendData("0.73", LocalDate.of(2018, Month.AUGUST, 10))));
+		dividendDataCache.put("AAPL", ResponseEntity.ok(dividendData("0.77", LocalDate.of(2018, Month.NOVEMBER, 8))));
+
+		ArgumentCaptor<DividendChange> change = ArgumentCaptor.forClass(DividendChange.class);
+		verify(broadcaster).publish(change.capture());
+		assertThat(change.getValue().getSymbol()).isEqualTo("AAPL");
+		assertThat(change.getValue().getChangedFields()).containsExactly("lastDividend", "lastExDividendDate");
+		assertThat(change.getValue().getLastDividend()).isEqualTo(new BigDecimal("0.77"));
+	}
+
+	@Test
+	public void testNewHistoryPaymentIsPublished() {
+		DividendHistory history = new DividendHistory();
+		history.addDividendPayment(LocalDate.of(2018, Month.MAY, 11), new BigDecimal("0.73"));
+		dividendHistoryCache.put("AAPL", ResponseEntity.ok(history));
+
+		history = new DividendHistory();
+		history.addDividendPayment(LocalDate.of(2018, Month.AUGUST, 10), new BigDecimal("0.73"));
+		history.addDividendPayment(LocalDate.of(2018, Month.MAY, 11), new BigDecimal("0.73"));
+		dividendHistoryCache.put("AAPL", ResponseEntity.ok(history));
+
+		ArgumentCaptor<DividendChange> change = ArgumentCaptor.forClass(DividendChange.class);
+		verify(broadcaster).publish(change.capture());
+		assertThat(change.getValue().getChangedFields()).containsExactly("dividendHistory");
+		assertThat(change.getValue().getLatestPaymentDate()).isEqualTo(LocalDate.of(2018, Month.AUGUST, 10));
+	}
+
+	private DividendData dividendData(String lastDividend, LocalDate lastExDividendDate) {
+		DividendData dividendData = new DividendData();
+		dividendData.setLastDividend(new BigDecimal(lastDividend));
+		dividendData.setLastExDividendDate(lastExDividendDate);
+		dividendData.setEstimatedForwardAnnualDividend(new BigDecimal("2.92"));
+
+		return dividendData;
+	}
+}
@@ -0,0 +1,112 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import service.models.CsvImportResult;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+import service.models.StockData;
+
+public class DividendCsvImporterTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private final CacheManager cacheManager = new ConcurrentMapCacheManager(StockCacheView.CACHE_NAMES);
+	private final StockCacheView cacheView = new StockCacheView();
+	private final ImportedDividends importedDividends = new ImportedDividends();
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(cacheView, "cacheManager", cacheManager);
+	}
+
+	private DividendCsvImporter importer(int parallelism) {
+		DividendCsvImporter importer = new DividendCsvImporter(folder.getRoot().getPath(), parallelism);
+		ReflectionTestUtils.setField(importer, "cacheView", cacheView);
+		ReflectionTestUtils.setField(importer, "importedDividends", importedDividends);
+		return importer;
+	}
+
+	@Test
+	public void testImportsHistoriesAndStocks() throws Exception {
+		Files.write(folder.newFile("dividends.csv").toPath(), Arrays.asList(
+				"symbol,date,amount", "KO,2018-03-14,0.39", "ko,2017-11-30,0.37", "KO,not a date,0.1", "", "PEP,2018-06-07,0.9275"),
+				StandardCharsets.UTF_8);
+		Files.write(folder.newFile("stocks.csv").toPath(), Arrays.asList(
+				"symbol,name,exchange,sector,industry", "KO,\"Coca-Cola Co, The\",NYSE,Consumer Goods,Beverages"),
+				StandardCharsets.UTF_8);
+
+		DividendHistory cached = new DividendHistory();
+		cached.addDividendPayment(LocalDate.of(2018, 3, 14), new BigDecimal("0.40"));
+		cacheManager.getCache(StockCacheView.DIVIDEND_HISTORY).put("KO", ResponseEntity.ok(cached));
+
+		CsvImportResult result = importer(2).importFiles(folder.getRoot().toPath());
+
+		assertEquals(2, result.getFiles());
+		assertEquals(4, result.getRows());
+		assertEquals(1, result.getRejectedRows());
+		assertEquals(2, result.getHistories());
+		assertEquals(1, result.getStocks());
+
+		List<DividendPayment> ko = cacheView.get(StockCacheView.DIVIDEND_HISTORY, "KO", DividendHistory.class).getDividends();
+		assertEquals(2, ko.size());
+		assertEquals(LocalDate.of(2017, 11, 30), ko.get(0).getDate());
+		assertEquals(new BigDecimal("0.40"), ko.get(1).getDividend());
+
+		StockData stockData = cacheView.get(StockCacheView.STOCK_DATA, "KO", StockData.class);
+		assertEquals("Coca-Cola Co, The", stockData.getName());
+		assertEquals("Beverages", stockData.getIndustry());
+		assertNull(cacheView.get(StockCacheView.STOCK_DATA, "PEP", StockData.class));
+
+		cacheManager.getCache(StockCacheView.DIVIDEND_HISTORY).clear();
+		assertEquals(2, importedDividends.merge("KO", null).getDividends().size());
+		assertEquals(1, importedDividends.merge("PEP", null).getDividends().size());
+	}
+
+	@Test
+	public void testChunkedFileMatchesRowCount() throws Exception {
+		File file = folder.newFile("large.csv");
+		int rows = 300000;
+
+		try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			writer.write("symbol,date,amount\r\n");
+			for (int i = 0; i < rows; i++) {
+				writer.write("S" + (i % 1000) + "," + LocalDate.of(1900, 1, 1).plusDays(i / 1000) + "," + (i % 7) + ".25\r\n");
+			}
+		}
+
+		CsvImportResult result = importer(4).importFiles(file.toPath());
+
+		assertEquals(rows, result.getRows());
+		assertEquals(0, result.getRejectedRows());
+		assertEquals(1000, result.getHistories());
+		assertEquals(rows / 1000, cacheView.get(StockCacheView.DIVIDEND_HISTORY, "S7", DividendHistory.class).getDividends().size());
+	}
+
+	@Test
+	public void testSplitCsv() {
+		assertEquals(Arrays.asList("a", "b \"c\", d", ""), DividendCsvImporter.splitCsv("a, \"b \"\"c\"\", d\","));
+		assertEquals(Collections.emptyList(), DividendCsvImporter.splitCsv("  "));
+	}
+}
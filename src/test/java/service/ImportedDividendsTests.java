@@ -0,0 +1,60 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+import service.models.Amount;
+import service.models.DividendHistory;
+import service.models.DividendHistory.DividendPayment;
+
+public class ImportedDividendsTests {
+
+	private static DividendHistory history(Object... datesAndAmounts) {
+		DividendHistory history = new DividendHistory();
+		for (int i = 0; i < datesAndAmounts.length; i += 2) {
+			history.addDividendPayment((LocalDate) datesAndAmounts[i],
+					datesAndAmounts[i + 1] != null ? new BigDecimal((String) datesAndAmounts[i + 1]) : null);
+		}
+		return history;
+	}
+
+	@Test
+	public void testMergeKeepsImportedAndPrefersScraped() {
+		ImportedDividends imported = new ImportedDividends();
+		imported.add("ko", history(LocalDate.of(1990, 3, 14), "0.11", LocalDate.of(2018, 3, 14), "0.38").getDividends());
+		imported.add("KO", history(LocalDate.of(1990, 6, 13), null).getDividends());
+
+		List<DividendPayment> merged = imported.merge("KO", history(LocalDate.of(2018, 3, 14), "0.39",
+				LocalDate.of(2018, 6, 14), "0.39")).getDividends();
+
+		assertEquals(4, merged.size());
+		assertEquals(LocalDate.of(1990, 3, 14), merged.get(0).getDate());
+		assertEquals(Amount.of(11, 2), merged.get(0).getDividendAmount());
+		assertNull(merged.get(1).getDividendAmount());
+		assertEquals(Amount.of(39, 2), merged.get(2).getDividendAmount());
+		assertEquals(LocalDate.of(2018, 6, 14), merged.get(3).getDate());
+	}
+
+	@Test
+	public void testMergeWithoutImportReturnsHistory() {
+		ImportedDividends imported = new ImportedDividends();
+		DividendHistory scraped = history(LocalDate.of(2018, 3, 14), "0.39");
+
+		assertFalse(imported.contains("PEP"));
+		assertSame(scraped, imported.merge("PEP", scraped));
+		assertNull(imported.merge("PEP", null));
+
+		imported.add("PEP", scraped.getDividends());
+		assertTrue(imported.contains("pep"));
+		assertEquals(1, imported.getSymbolCount());
+	}
+}
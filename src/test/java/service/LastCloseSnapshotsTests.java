@@ -0,0 +1,181 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import service.LastCloseSnapshots.Snapshot;
+import service.models.Amount;
+import service.models.FundamentalData;
+
+public class LastCloseSnapshotsTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReadsRange() throws Exception {
+		LastCloseSnapshots snapshots = new LastCloseSnapshots(folder.getRoot().getPath());
+		LocalDate start = LocalDate.of(2018, 1, 1);
+
+		for (int day = 0; day < 1000; day += 2) {
+			snapshots.record("KO", start.plusDays(day), Amount.of(4000 + day, 2));
+		}
+
+		List<Snapshot> range = snapshots.read("ko", start.plusDays(501), start.plusDays(510));
+
+		assertEquals(5, range.size());
+		assertEquals(start.plusDays(502), range.get(0).getDate());
+		assertEquals(Amount.of(4502, 2), range.get(0).getClose());
+		assertEquals(start.plusDays(510), range.get(4).getDate());
+
+		assertEquals(500, snapshots.read("KO", start.minusYears(1), start.plusYears(5)).size());
+		assertTrue(snapshots.read("KO", start.plusYears(5), start.plusYears(6)).isEmpty());
+		assertTrue(snapshots.read("PEP", start, start.plusYears(1)).isEmpty());
+	}
+
+	@Test
+	public void testSameDayReplacesLastRecord() throws Exception {
+		LastCloseSnapshots snapshots = new LastCloseSnapshots(folder.getRoot().getPath());
+		LocalDate day = LocalDate.of(2018, 9, 3);
+
+		assertTrue(snapshots.record("KO", day, Amount.of(4600, 2)));
+		assertTrue(snapshots.record("KO", day, Amount.of(46125, 3)));
+		assertFalse(snapshots.record("KO", day.minusDays(1), Amount.of(4500, 2)));
+
+		List<Snapshot> all = snapshots.read("KO", day.minusDays(7), day);
+
+		assertEquals(1, all.size());
+		assertEquals(Amount.of(46125, 3), all.get(0).getClose());
+		assertEquals(LastCloseSnapshots.RECORD_SIZE, Files.size(folder.getRoot().toPath().resolve("KO.close")));
+	}
+
+	@Test
+	public void testReadsWhileSameDayIsReplaced() throws Exception {
+		LastCloseSnapshots snapshots = new LastCloseSnapshots(folder.getRoot().getPath());
+		LocalDate start = LocalDate.of(2018, 1, 1);
+		for (int day = 0; day < 100; day++) {
+			snapshots.record("KO", start.plusDays(day), Amount.of(4000 + day, 2));
+		}
+
+		AtomicBoolean done = new AtomicBoolean();
+		Future<?> rerecords = Executors.newSingleThreadExecutor().submit(() -> {
+			for (int i = 0; i < 2000; i++) {
+				snapshots.record("KO", start.plusDays(99), Amount.of(5000 + i, 2));
+			}
+			done.set(true);
+			return null;
+		});
+
+		while (!done.get()) {
+			assertEquals(100, snapshots.read("KO", start, start.plusDays(99)).size());
+		}
+		rerecords.get();
+		assertEquals(Amount.of(6999, 2), snapshots.read("KO", start.plusDays(99), start.plusDays(99)).get(0).getClose());
+	}
+
+	@Test
+	public void testIgnoresPartialRecordAtTheEnd() throws Exception {
+		LastCloseSnapshots snapshots = new LastCloseSnapshots(folder.getRoot().getPath());
+		snapshots.record("KO", LocalDate.of(2018, 9, 3), Amount.of(4600, 2));
+		Files.write(folder.getRoot().toPath().resolve("KO.close"), new byte[] {0, 0, 1}, StandardOpenOption.APPEND);
+
+		assertEquals(1, snapshots.read("KO", LocalDate.of(2018, 9, 1), LocalDate.of(2018, 9, 30)).size());
+		assertTrue(snapshots.record("KO", LocalDate.of(2018, 9, 4), Amount.of(4700, 2)));
+		assertEquals(2 * LastCloseSnapshots.RECORD_SIZE, Files.size(folder.getRoot().toPath().resolve("KO.close")));
+	}
+
+	@Test
+	public void testIgnoresSymbolsThatAreNotFileNames() throws Exception {
+		LastCloseSnapshots snapshots = new LastCloseSnapshots(folder.getRoot().getPath());
+
+		assertFalse(snapshots.record("../KO", LocalDate.of(2018, 9, 3), Amount.of(4600, 2)));
+	}
+
+	@Test
+	public void testLastSessionSkipsWeekendsAndOpenMarket() {
+		//Monday 2018-09-03 before and after the close, then the weekend before it
+		assertEquals(LocalDate.of(2018, 8, 31), LastCloseSnapshots.lastSession(at(2018, 9, 3, 0)));
+		assertEquals(LocalDate.of(2018, 8, 31), LastCloseSnapshots.lastSession(at(2018, 9, 3, 15)));
+		assertEquals(LocalDate.of(2018, 9, 3), LastCloseSnapshots.lastSession(at(2018, 9, 3, 16)));
+		assertEquals(LocalDate.of(2018, 8, 31), LastCloseSnapshots.lastSession(at(2018, 9, 1, 20)));
+		assertEquals(LocalDate.of(2018, 8, 31), LastCloseSnapshots.lastSession(at(2018, 9, 2, 12)));
+	}
+
+	@Test
+	public void testRecordsOnlyClosesWithATradingDay() throws Exception {
+		LastCloseSnapshots snapshots = new LastCloseSnapshots(folder.getRoot().getPath());
+		FundamentalData shared = new FundamentalData();
+		shared.setLastCloseAmount(Amount.of(4500, 2));
+		FundamentalData fetched = new FundamentalData();
+		fetched.setLastCloseAmount(Amount.of(4600, 2));
+		fetched.setCloseDate(LocalDate.of(2018, 8, 31));
+
+		snapshots.entryPut(StockCacheView.FUNDAMENTAL_DATA, "KO", null, shared);
+		snapshots.entryPut(StockCacheView.FUNDAMENTAL_DATA, "KO", null, fetched);
+		snapshots.shutdown();
+		assertTrue(((ExecutorService) ReflectionTestUtils.getField(snapshots, "writer")).awaitTermination(5, TimeUnit.SECONDS));
+
+		List<Snapshot> all = snapshots.read("KO", LocalDate.of(2018, 8, 1), LocalDate.of(2018, 9, 30));
+		assertEquals(1, all.size());
+		assertEquals(LocalDate.of(2018, 8, 31), all.get(0).getDate());
+		assertEquals(Amount.of(4600, 2), all.get(0).getClose());
+	}
+
+	@Test
+	public void testInstancesSharingACacheRecordTheSameClose() throws Exception {
+		SharedCacheStore shared = new InMemorySharedCacheStore();
+		LastCloseSnapshots fetching = new LastCloseSnapshots(folder.newFolder("fetching").getPath());
+		LastCloseSnapshots adopting = new LastCloseSnapshots(folder.newFolder("adopting").getPath());
+		FundamentalData fetched = new FundamentalData();
+		fetched.setLastCloseAmount(Amount.of(4600, 2));
+		fetched.setCloseDate(LocalDate.of(2018, 8, 31));
+
+		node(shared, "first", fetching).put("KO", ResponseEntity.ok(fetched));
+		node(shared, "second", adopting).get("KO");
+
+		for (LastCloseSnapshots snapshots : Arrays.asList(fetching, adopting)) {
+			snapshots.shutdown();
+			assertTrue(((ExecutorService) ReflectionTestUtils.getField(snapshots, "writer")).awaitTermination(5, TimeUnit.SECONDS));
+
+			List<Snapshot> all = snapshots.read("KO", LocalDate.of(2018, 8, 1), LocalDate.of(2018, 9, 30));
+			assertEquals(1, all.size());
+			assertEquals(LocalDate.of(2018, 8, 31), all.get(0).getDate());
+		}
+	}
+
+	private static TwoLevelCache node(SharedCacheStore shared, String owner, LastCloseSnapshots snapshots) {
+		ObservedCache local = new ObservedCache(new ConcurrentMapCache(StockCacheView.FUNDAMENTAL_DATA),
+				Collections.singletonList(snapshots));
+		return new TwoLevelCache(local, shared, owner, 60000, 5000);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRejectsScaleOutsideTheRecord() throws Exception {
+		new LastCloseSnapshots(folder.getRoot().getPath()).record("KO", LocalDate.of(2018, 9, 3), Amount.of(1, 200));
+	}
+
+	private static ZonedDateTime at(int year, int month, int day, int hour) {
+		return ZonedDateTime.of(year, month, day, hour, 0, 0, 0, LastCloseSnapshots.MARKET_ZONE);
+	}
+}
@@ -0,0 +1,110 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+public class ObservedCacheTests {
+
+	@Test
+	public void testStatisticsAndTimes() {
+		ObservedCache cache = new ObservedCache(new ConcurrentMapCache("stockData"), Collections.emptyList());
+
+		cache.get("KO", () -> "loaded");
+		cache.get("KO", () -> "not loaded");
+		cache.get("PEP");
+		cache.put("PEP", "refreshed");
+		cache.evict("PEP");
+
+		CacheStatistics statistics = cache.getStatistics();
+		assertEquals(1, statistics.getHits());
+		assertEquals(2, statistics.getMisses());
+		assertEquals(2, statistics.getPuts());
+		assertEquals(1, statistics.getEvictions());
+		assertEquals(1, statistics.getSize());
+		assertEquals(1.0 / 3, statistics.getHitRatio(), 0.0001);
+
+		assertTrue(cache.getWrittenAt("KO") > 0);
+		assertEquals(0, cache.getWrittenAt("PEP"));
+	}
+
+	@Test
+	public void testRefreshIsNotARead() throws Exception {
+		ObservedCache cache = new ObservedCache(new ConcurrentMapCache("stockData"), Collections.emptyList());
+
+		cache.put("KO", "first");
+		long accessedAt = cache.getAccessedAt("KO");
+		Thread.sleep(5);
+		cache.put("KO", "refreshed");
+
+		assertEquals(accessedAt, cache.getAccessedAt("KO"));
+		assertTrue(cache.getWrittenAt("KO") > accessedAt);
+	}
+
+	@Test(timeout = 10000)
+	public void testConcurrentLoadsAreCoalesced() throws Exception {
+		ObservedCache cache = new ObservedCache(new ConcurrentMapCache("stockData"), Collections.emptyList());
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+
+		try {
+			List<Future<Object>> results = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				results.add(executor.submit(() -> cache.get("KO", () -> {
+					loads.incrementAndGet();
+					loading.countDown();
+					release.await();
+					return "loaded";
+				})));
+			}
+
+			assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+			//A slow load must not hold up writes to other keys
+			cache.put("PEP", "refreshed");
+			cache.evict("PEP");
+
+			release.countDown();
+			for (Future<Object> result : results) {
+				assertEquals("loaded", result.get());
+			}
+			assertEquals(1, loads.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testFailedLoadIsNotCached() {
+		ObservedCache cache = new ObservedCache(new ConcurrentMapCache("stockData"), Collections.emptyList());
+
+		try {
+			cache.get("KO", () -> {
+				throw new IllegalStateException("upstream down");
+			});
+			fail("Expected the load to fail");
+		}
+		catch (Cache.ValueRetrievalException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+
+		assertEquals("loaded", cache.get("KO", () -> "loaded"));
+	}
+}
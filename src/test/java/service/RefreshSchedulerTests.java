@@ -0,0 +1,168 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import service.models.DividendData;
+import service.models.DividendHistory;
+
+public class RefreshSchedulerTests {
+	private static final LocalDate TODAY = LocalDate.of(2018, 9, 14);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static DividendHistory history(LocalDate... dates) {
+		DividendHistory history = new DividendHistory();
+
+		for (LocalDate date : dates) {
+			history.addDividendPayment(date, new BigDecimal("0.25"));
+		}
+
+		return history;
+	}
+
+	private static DividendHistory quarterly() {
+		return history(LocalDate.of(2017, 11, 10), LocalDate.of(2017, 12, 20), LocalDate.of(2018, 2, 9),
+				LocalDate.of(2018, 5, 11), LocalDate.of(2018, 8, 10));
+	}
+
+	@Test
+	public void testCadence() {
+		assertEquals(91, RefreshScheduler.cadenceDays(quarterly()));
+		assertEquals(31, RefreshScheduler.cadenceDays(history(LocalDate.of(2018, 5, 1), LocalDate.of(2018, 6, 1),
+				LocalDate.of(2018, 7, 2), LocalDate.of(2018, 8, 1))));
+		assertEquals(RefreshScheduler.DEFAULT_CADENCE_DAYS, RefreshScheduler.cadenceDays(history(LocalDate.of(2018, 5, 1))));
+	}
+
+	@Test
+	public void testExDividendWindow() {
+		DividendHistory history = quarterly();
+
+		assertFalse(RefreshScheduler.isInExDividendWindow(null, history, TODAY, 7, 7));
+		assertTrue(RefreshScheduler.isInExDividendWindow(null, history, LocalDate.of(2018, 11, 3), 7, 7));
+		assertTrue(RefreshScheduler.isInExDividendWindow(null, history, LocalDate.of(2018, 11, 16), 7, 7));
+		assertFalse(RefreshScheduler.isInExDividendWindow(null, history, LocalDate.of(2018, 11, 17), 7, 7));
+		assertFalse(RefreshScheduler.isInExDividendWindow(null, null, TODAY, 7, 7));
+
+		DividendData declared = new DividendData();
+		declared.setLastExDividendDate(LocalDate.of(2018, 9, 1));
+		assertTrue(RefreshScheduler.isInExDividendWindow(declared, history, LocalDate.of(2018, 11, 26), 7, 7));
+	}
+
+	@Test
+	public void testRefreshesOnlyWhatIsDue() {
+		StockCacheView cacheView = mock(StockCacheView.class);
+		CacheRefresher refresher = mock(CacheRefresher.class);
+		RefreshScheduler scheduler = new RefreshScheduler(1, 7, 7, 14, 7, 1000);
+		ReflectionTestUtils.setField(scheduler, "cacheView", cacheView);
+		ReflectionTestUtils.setField(scheduler, "refresher", refresher);
+
+		long now = TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli() + 3600000;
+		long yesterday = now - 86400000;
+		DividendData dividendData = new DividendData();
+		dividendData.setLastExDividendDate(LocalDate.of(2018, 8, 10));
+
+		given(cacheView.contains(anyString(), anyString())).willReturn(true);
+		given(cacheView.get(StockCacheView.DIVIDEND_DATA, "KO", Object.class)).willReturn(dividendData);
+		given(cacheView.get(StockCacheView.DIVIDEND_DATA, "KO", DividendData.class)).willReturn(dividendData);
+		given(cacheView.get(StockCacheView.DIVIDEND_HISTORY, "KO", Object.class)).willReturn(quarterly());
+		given(cacheView.get(StockCacheView.DIVIDEND_HISTORY, "KO", DividendHistory.class)).willReturn(quarterly());
+		given(cacheView.getWrittenAt(StockCacheView.DIVIDEND_DATA, "KO")).willReturn(yesterday);
+		given(cacheView.getWrittenAt(StockCacheView.DIVIDEND_HISTORY, "KO")).willReturn(yesterday);
+		given(cacheView.getAccessedAt(StockCacheView.DIVIDEND_DATA, "KO")).willReturn(yesterday);
+
+		assertEquals(1, scheduler.refreshSymbol("KO", TODAY, now));
+		verify(refresher).refreshStockPage("KO", true);
+		verify(refresher, never()).refresh(StockCacheView.DIVIDEND_HISTORY, "KO");
+
+		dividendData.setLastExDividendDate(LocalDate.of(2018, 9, 12));
+		assertEquals(2, scheduler.refreshSymbol("KO", TODAY, now));
+		verify(refresher).refresh(StockCacheView.DIVIDEND_HISTORY, "KO");
+	}
+
+	@Test
+	public void testEvictsIdleSymbols() {
+		StockCacheView cacheView = mock(StockCacheView.class);
+		RefreshScheduler scheduler = new RefreshScheduler(1, 7, 7, 14, 7, 1000);
+		ReflectionTestUtils.setField(scheduler, "cacheView", cacheView);
+
+		long now = System.currentTimeMillis();
+		given(cacheView.getAccessedAt(StockCacheView.STOCK_DATA, "IDLE")).willReturn(now - 8 * 86400000L);
+
+		assertEquals(0, scheduler.refreshSymbol("IDLE", TODAY, now));
+		for (String cacheName : StockCacheView.CACHE_NAMES) {
+			verify(cacheView).evict(cacheName, "IDLE");
+		}
+	}
+
+	@Test
+	public void testSubmitRefreshIsBounded() throws Exception {
+		CacheRefresher refresher = mock(CacheRefresher.class);
+		CountDownLatch release = new CountDownLatch(1);
+		given(refresher.refreshAll(anyString())).willAnswer(invocation -> {
+			release.await();
+			return 0;
+		});
+		RefreshScheduler scheduler = new RefreshScheduler(1, 7, 7, 14, 7, 2);
+		ReflectionTestUtils.setField(scheduler, "refresher", refresher);
+
+		try {
+			assertEquals(2, scheduler.submitRefresh(Arrays.asList("KO", "PEP")));
+			assertEquals(-1, scheduler.submitRefresh(Collections.singletonList("T")));
+
+			release.countDown();
+			verify(refresher, timeout(2000)).refreshAll("PEP");
+			Thread.sleep(50);
+			assertEquals(1, scheduler.submitRefresh(Collections.singletonList("T")));
+		}
+		finally {
+			scheduler.shutdown();
+		}
+	}
+
+	@Test
+	public void testUnrequestedImportIsNotRefreshed() throws Exception {
+		StockCacheView cacheView = new StockCacheView();
+		ReflectionTestUtils.setField(cacheView, "cacheManager", new CacheManagement(60000, 5000).cacheManager());
+		CacheRefresher refresher = mock(CacheRefresher.class);
+		RefreshScheduler scheduler = new RefreshScheduler(1, 7, 7, 14, 7, 1000);
+		ReflectionTestUtils.setField(scheduler, "cacheView", cacheView);
+		ReflectionTestUtils.setField(scheduler, "refresher", refresher);
+
+		File file = folder.newFile("dividends.csv");
+		Files.write(file.toPath(), Arrays.asList("symbol,date,amount", "KO,2018-03-14,0.39"), StandardCharsets.UTF_8);
+		DividendCsvImporter importer = new DividendCsvImporter(file.getPath(), 1);
+		ReflectionTestUtils.setField(importer, "cacheView", cacheView);
+		ReflectionTestUtils.setField(importer, "importedDividends", new ImportedDividends());
+		importer.importFiles(file.toPath());
+
+		long tomorrow = System.currentTimeMillis() + 86400000;
+		assertEquals(0, scheduler.refreshSymbol("KO", LocalDate.now().plusDays(1), tomorrow));
+		verify(refresher, never()).refresh(anyString(), anyString());
+		verify(refresher, never()).refreshStockPage(anyString(), anyBoolean());
+	}
+}
@@ -0,0 +1,85 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import service.models.DividendData;
+import service.models.SectorSummary;
+import service.models.StockData;
+
+public class SectorRollupsTests {
+	private final SectorRollups rollups = new SectorRollups();
+
+	private void cache(String symbol, String sector, String industry, String yield, int yearsPaying) {
+		StockData stockData = new StockData();
+		stockData.setSymbol(symbol);
+		stockData.setName(symbol + " Corp");
+		stockData.setSector(sector);
+		stockData.setIndustry(industry);
+		rollups.entryPut(StockCacheView.STOCK_DATA, symbol, null, stockData);
+
+		DividendData dividendData = new DividendData();
+		dividendData.setEstimatedForwardAnnualYield(new BigDecimal(yield));
+		dividendData.setYearsPaying(yearsPaying);
+		rollups.entryPut(StockCacheView.DIVIDEND_DATA, symbol, null, dividendData);
+	}
+
+	private static List<String> topPayers(SectorSummary summary) {
+		return summary.getTopPayers().stream().map(SectorSummary.Payer::getSymbol).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testSectorAggregates() {
+		cache("KO", "Consumer Goods", "Beverages", "3.00", 50);
+		cache("PEP", "Consumer Goods", "Beverages", "2.80", 40);
+		cache("PG", "Consumer Goods", "Household", "2.40", 60);
+		cache("MO", "Consumer Goods", "Tobacco", "8.00", 30);
+		cache("T", "Technology", "Telecom", "6.50", 35);
+
+		List<SectorSummary> sectors = rollups.getSectors(2);
+		assertEquals(Arrays.asList("Consumer Goods", "Technology"),
+				sectors.stream().map(SectorSummary::getName).collect(Collectors.toList()));
+
+		SectorSummary consumer = sectors.get(0);
+		assertEquals(4, consumer.getSymbolCount());
+		assertEquals(new BigDecimal("2.90"), consumer.getMedianForwardYield());
+		assertEquals(new BigDecimal("4.05"), consumer.getMeanForwardYield());
+		assertEquals(new BigDecimal("45.0"), consumer.getAverageYearsPaying());
+		assertEquals(Arrays.asList("MO", "KO"), topPayers(consumer));
+
+		List<SectorSummary> industries = rollups.getIndustries("consumer goods", 5);
+		assertEquals("Beverages", industries.get(0).getName());
+		assertEquals(2, industries.get(0).getSymbolCount());
+		assertEquals(Arrays.asList("KO", "PEP"), topPayers(industries.get(0)));
+		assertNull(rollups.getIndustries("Utilities", 5));
+	}
+
+	@Test
+	public void testRefreshAndEvictUpdateRollups() {
+		cache("KO", "Consumer Goods", "Beverages", "3.00", 50);
+		cache("PEP", "Consumer Goods", "Beverages", "2.80", 40);
+		cache("MO", "Consumer Goods", "Tobacco", "8.00", 30);
+
+		cache("KO", "Consumer Goods", "Beverages", "9.00", 51);
+		SectorSummary consumer = rollups.getSectors(1).get(0);
+		assertEquals(new BigDecimal("8.00"), consumer.getMedianForwardYield());
+		assertEquals(Arrays.asList("KO"), topPayers(consumer));
+
+		rollups.entryEvicted(StockCacheView.DIVIDEND_DATA, "KO", null);
+		consumer = rollups.getSectors(5).get(0);
+		assertEquals(2, consumer.getSymbolCount());
+		assertEquals(new BigDecimal("5.40"), consumer.getMedianForwardYield());
+		assertEquals(Arrays.asList("MO", "PEP"), topPayers(consumer));
+
+		rollups.cacheCleared(StockCacheView.STOCK_DATA);
+		assertTrue(rollups.getSectors(5).isEmpty());
+	}
+}
@@ -0,0 +1,75 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import service.models.StockData;
+import service.models.SymbolMatch;
+
+public class SymbolIndexTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static List<String> symbols(List<SymbolMatch> matches) {
+		return matches.stream().map(SymbolMatch::getSymbol).collect(Collectors.toList());
+	}
+
+	@Test
+	public void testSymbolPrefixBeforeNameWords() {
+		SymbolIndex index = new SymbolIndex("");
+		index.add("APPS", "Digital Turbine Inc");
+		index.add("AAPL", "Apple Inc");
+		index.add("APP", "AppLovin Corp");
+		index.add("MSFT", "Microsoft Corp");
+
+		assertEquals(Arrays.asList("APP", "APPS", "AAPL"), symbols(index.search("app", 10)));
+		assertEquals(Arrays.asList("APP", "APPS"), symbols(index.search("APP", 2)));
+		assertEquals(Arrays.asList("APP", "MSFT"), symbols(index.search("corp", 10)));
+		assertEquals(Arrays.asList("AAPL"), symbols(index.search("apple in", 10)));
+		assertTrue(index.search("zzz", 10).isEmpty());
+	}
+
+	@Test
+	public void testCachedStockDataUpdatesName() {
+		SymbolIndex index = new SymbolIndex("");
+		index.add("KO", null);
+		assertNull(index.search("KO", 1).get(0).getName());
+
+		StockData stockData = new StockData();
+		stockData.setSymbol("KO");
+		stockData.setName("Coca-Cola Co");
+		index.entryPut(StockCacheView.STOCK_DATA, "KO", null, stockData);
+
+		assertEquals("Coca-Cola Co", index.search("cola", 10).get(0).getName());
+
+		index.add("KO", "Coca-Cola Company");
+		assertEquals(Arrays.asList("KO"), symbols(index.search("company", 10)));
+		assertEquals(Arrays.asList("KO"), symbols(index.search("coca co", 10)));
+	}
+
+	@Test
+	public void testPreloadFile() throws Exception {
+		File file = folder.newFile("symbols.csv");
+		Files.write(file.toPath(), Arrays.asList("# symbol,name", "T,AT&T Inc", "vz", ""), StandardCharsets.UTF_8);
+
+		SymbolIndex index = new SymbolIndex(file.getPath());
+		index.preload();
+
+		assertEquals(2, index.size());
+		assertEquals(Arrays.asList("T"), symbols(index.search("at", 10)));
+		assertEquals(Arrays.asList("VZ"), symbols(index.search("V", 10)));
+	}
+}
@@ -0,0 +1,112 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import service.models.StockData;
+
+public class TwoLevelCacheTests {
+	private final SharedCacheStore shared = new InMemorySharedCacheStore();
+
+	private TwoLevelCache node(String owner) {
+		ObservedCache local = new ObservedCache(new ConcurrentMapCache("stockData"), Collections.emptyList());
+		return new TwoLevelCache(local, shared, owner, 60000, 5000);
+	}
+
+	private static StockData stockData(String symbol) {
+		StockData stockData = new StockData();
+		stockData.setSymbol(symbol);
+		stockData.setName("Apple Inc.");
+		return stockData;
+	}
+
+	@Test
+	public void testLoadsOnceAcrossNodes() throws Exception {
+		TwoLevelCache first = node("first");
+		TwoLevelCache second = node("second");
+		AtomicInteger loads = new AtomicInteger();
+		CountDownLatch loading = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		try {
+			Future<ResponseEntity<?>> firstResult = executor.submit(() -> first.get("AAPL", () -> {
+				loads.incrementAndGet();
+				loading.countDown();
+				TimeUnit.MILLISECONDS.sleep(300);
+				return ResponseEntity.ok(stockData("AAPL"));
+			}));
+			loading.await();
+			Future<ResponseEntity<?>> secondResult = executor.submit(() -> second.get("AAPL", () -> {
+				loads.incrementAndGet();
+				return ResponseEntity.ok(stockData("AAPL"));
+			}));
+
+			assertEquals("AAPL", ((StockData) firstResult.get().getBody()).getSymbol());
+			assertEquals("Apple Inc.", ((StockData) secondResult.get().getBody()).getName());
+			assertEquals(1, loads.get());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testMissFilledFromSharedStore() {
+		node("first").put("AAPL", ResponseEntity.ok(stockData("AAPL")));
+
+		ResponseEntity<?> response = (ResponseEntity<?>) node("second").get("AAPL").get();
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("AAPL", ((StockData) response.getBody()).getSymbol());
+	}
+
+	@Test
+	public void testSharesNotFound() {
+		node("first").put("NOPE", ResponseEntity.notFound().build());
+
+		ResponseEntity<?> response = (ResponseEntity<?>) node("second").get("NOPE").get();
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertNull(response.getBody());
+	}
+
+	@Test
+	public void testEvictRemovesFromBothLevels() {
+		TwoLevelCache first = node("first");
+		first.put("AAPL", ResponseEntity.ok(stockData("AAPL")));
+		first.evict("AAPL");
+
+		assertNull(first.get("AAPL"));
+		assertNull(node("second").get("AAPL"));
+	}
+
+	@Test
+	public void testSharedKeysAndPeekDoNotFillLocal() {
+		node("first").put("AAPL", ResponseEntity.ok(stockData("AAPL")));
+		TwoLevelCache second = node("second");
+		List<String> keys = new ArrayList<>();
+
+		second.forEachSharedKey(keys::add);
+		ResponseEntity<?> peeked = (ResponseEntity<?>) second.peekShared("AAPL");
+
+		assertEquals(Collections.singletonList("AAPL"), keys);
+		assertEquals("AAPL", ((StockData) peeked.getBody()).getSymbol());
+		assertNull(second.getLocal().get("AAPL"));
+		assertNull(second.peekShared("MSFT"));
+	}
+}
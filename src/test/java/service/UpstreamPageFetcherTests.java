@@ -0,0 +1,142 @@
+package service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+public class UpstreamPageFetcherTests {
+	private static final String URL = "https://dividata.com/stock/AAPL";
+
+	private UpstreamPageFetcher fetcher;
+
+	@After
+	public void tearDown() {
+		fetcher.shutdown();
+	}
+
+	@Test
+	public void testRetriesTransientFailure() throws Exception {
+		fetcher = new UpstreamPageFetcher(5000, 5000, false, 2, 1, 8);
+		HtmlPage page = mock(HtmlPage.class);
+		WebClient failing = mock(WebClient.class);
+		WebClient working = mock(WebClient.class);
+		given(failing.getPage(anyString())).willThrow(new IOException("connection reset"));
+		given(working.getPage(anyString())).willReturn(page);
+		WebClient[] clients = {failing, working};
+		int[] next = {0};
+
+		assertSame(page, fetcher.getPage(URL, () -> clients[next[0]++]));
+		assertEquals(1, fetcher.getMetrics().getRetries());
+		verify(failing).close();
+	}
+
+	@Test
+	public void testDoesNotRetryNotFound() throws Exception {
+		fetcher = new UpstreamPageFetcher(5000, 5000, false, 2, 1, 8);
+		WebResponse response = mock(WebResponse.class);
+		given(response.getStatusCode()).willReturn(404);
+		WebClient webClient = mock(WebClient.class);
+		given(webClient.getPage(anyString())).willThrow(new FailingHttpStatusCodeException("404 Not Found", response));
+
+		try {
+			fetcher.getPage(URL, () -> webClient);
+			fail("Expected the 404 to be passed back");
+		}
+		catch (FailingHttpStatusCodeException e) {
+			assertEquals(404, e.getStatusCode());
+		}
+
+		assertEquals(1, fetcher.getMetrics().getAttempts());
+		assertEquals(0, fetcher.getMetrics().getRetries());
+		assertEquals(0, fetcher.getMetrics().getFailures());
+	}
+
+	@Test
+	public void testHedgedRequestWins() throws Exception {
+		fetcher = new UpstreamPageFetcher(5000, 50, true, 0, 1, 8);
+		HtmlPage slowPage = mock(HtmlPage.class);
+		HtmlPage fastPage = mock(HtmlPage.class);
+		WebClient slow = mock(WebClient.class);
+		WebClient fast = mock(WebClient.class);
+		given(slow.getPage(anyString())).willAnswer(invocation -> {
+			Thread.sleep(500);
+			return slowPage;
+		});
+		given(fast.getPage(anyString())).willReturn(fastPage);
+		WebClient[] clients = {slow, fast};
+		int[] next = {0};
+
+		assertSame(fastPage, fetcher.getPage(URL, () -> clients[next[0]++]));
+		assertEquals(1, fetcher.getMetrics().getHedges());
+		assertEquals(1, fetcher.getMetrics().getHedgeWins());
+		verify(slow, timeout(2000)).close();
+	}
+
+	@Test(expected = TimeoutException.class)
+	public void testBudgetExceeded() throws Exception {
+		fetcher = new UpstreamPageFetcher(100, 20, true, 2, 1, 8);
+		WebClient webClient = mock(WebClient.class);
+		given(webClient.getPage(anyString())).willAnswer(invocation -> {
+			Thread.sleep(1000);
+			return null;
+		});
+
+		try {
+			fetcher.getPage(URL, () -> webClient);
+		}
+		finally {
+			assertEquals(1, fetcher.getMetrics().getBudgetExceeded());
+		}
+	}
+
+	@Test
+	public void testSkipsHedgeWhenNoThreadsFree() throws Exception {
+		fetcher = new UpstreamPageFetcher(5000, 20, true, 0, 1, 1);
+		HtmlPage page = mock(HtmlPage.class);
+		WebClient webClient = mock(WebClient.class);
+		given(webClient.getPage(anyString())).willAnswer(invocation -> {
+			Thread.sleep(200);
+			return page;
+		});
+
+		assertSame(page, fetcher.getPage(URL, () -> webClient));
+		assertEquals(0, fetcher.getMetrics().getHedges());
+		assertEquals(1, fetcher.getMetrics().getRejected());
+	}
+
+	@Test
+	public void testLateFailedAttemptClosesClient() throws Exception {
+		fetcher = new UpstreamPageFetcher(5000, 20, true, 0, 1, 8);
+		HtmlPage page = mock(HtmlPage.class);
+		WebClient slow = mock(WebClient.class);
+		WebClient fast = mock(WebClient.class);
+		given(slow.getPage(anyString())).willAnswer(invocation -> {
+			Thread.sleep(300);
+			throw new IOException("connection reset");
+		});
+		given(fast.getPage(anyString())).willReturn(page);
+		WebClient[] clients = {slow, fast};
+		int[] next = {0};
+
+		assertSame(page, fetcher.getPage(URL, () -> clients[next[0]++]));
+		verify(slow, timeout(2000)).close();
+		verify(fast, never()).close();
+	}
+}
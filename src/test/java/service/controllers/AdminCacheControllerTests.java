@@ -0,0 +1,113 @@
+package service.controllers;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import service.CacheRefresher;
+import service.RefreshScheduler;
+import service.StockCacheView;
+import service.models.StockData;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(AdminCacheController.class)
+@TestPropertySource(properties = "admin.enabled=true")
+public class AdminCacheControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private StockCacheView cacheView;
+
+    @MockBean
+    private CacheRefresher refresher;
+
+    @MockBean
+    private RefreshScheduler scheduler;
+
+    @Test
+    public void testListEntries() throws Exception {
+    	StockData stockData = new StockData();
+    	stockData.setSymbol("AAPL");
+    	long now = System.currentTimeMillis();
+
+    	given(cacheView.keys(StockCacheView.STOCK_DATA)).willAnswer(invocation -> Arrays.asList("AAPL", "NODIV"));
+    	given(cacheView.get(StockCacheView.STOCK_DATA, "AAPL", Object.class)).willReturn(stockData);
+    	given(cacheView.getWrittenAt(StockCacheView.STOCK_DATA, "AAPL")).willReturn(now - 120000);
+    	given(cacheView.getAccessedAt(StockCacheView.STOCK_DATA, "AAPL")).willReturn(now - 60000);
+
+    	mvc.perform(get("/admin/cache/entries?cache=stockData"))
+    		.andExpect(status().isOk())
+    		.andExpect(jsonPath("$.length()").value(2))
+    		.andExpect(jsonPath("$[0].symbol").value("AAPL"))
+    		.andExpect(jsonPath("$[0].found").value(true))
+    		.andExpect(jsonPath("$[0].ageSeconds").value(120))
+    		.andExpect(jsonPath("$[0].idleSeconds").value(60))
+    		.andExpect(jsonPath("$[0].sizeBytes").value(7))
+    		.andExpect(jsonPath("$[1].found").value(false));
+
+    	mvc.perform(get("/admin/cache/entries?cache=quotes"))
+    		.andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testEvictSymbol() throws Exception {
+    	mvc.perform(delete("/admin/cache/symbols/aapl"))
+    		.andExpect(status().isNoContent());
+
+    	for (String cacheName : StockCacheView.CACHE_NAMES) {
+    		verify(cacheView).evict(cacheName, "aapl");
+    	}
+    }
+
+    @Test
+    public void testRefreshSymbol() throws Exception {
+    	given(refresher.refreshAll("AAPL")).willReturn(4);
+
+    	mvc.perform(post("/admin/cache/symbols/AAPL/refresh"))
+    		.andExpect(status().isOk())
+    		.andExpect(content().string("4"));
+
+    	mvc.perform(post("/admin/cache/symbols/GONE/refresh"))
+    		.andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testBulkRefresh() throws Exception {
+    	given(scheduler.getMaxQueued()).willReturn(1000);
+    	given(scheduler.submitRefresh(Arrays.asList("KO", "PEP"))).willReturn(2);
+
+    	mvc.perform(post("/admin/cache/refresh?symbols=ko, pep,KO"))
+    		.andExpect(status().isAccepted())
+    		.andExpect(content().string("2"));
+    	verify(scheduler).submitRefresh(Arrays.asList("KO", "PEP"));
+    }
+
+    @Test
+    public void testBulkRefreshWhenQueueIsFull() throws Exception {
+    	given(scheduler.getMaxQueued()).willReturn(2);
+    	given(scheduler.submitRefresh(Arrays.asList("KO", "PEP"))).willReturn(-1);
+
+    	mvc.perform(post("/admin/cache/refresh?symbols=KO,PEP"))
+    		.andExpect(status().isServiceUnavailable());
+    	mvc.perform(post("/admin/cache/refresh?symbols=KO,PEP,T"))
+    		.andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,48 @@
+package service.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import service.CacheRefresher;
+import service.DividendCsvImporter;
+import service.RefreshScheduler;
+import service.StockCacheView;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest({AdminCacheController.class, AdminImportController.class})
+public class AdminEndpointsDisabledTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private StockCacheView cacheView;
+
+    @MockBean
+    private CacheRefresher refresher;
+
+    @MockBean
+    private RefreshScheduler scheduler;
+
+    @MockBean
+    private DividendCsvImporter importer;
+
+    @Test
+    public void testAdminEndpointsAreOffByDefault() throws Exception {
+    	mvc.perform(get("/admin/cache/entries")).andExpect(status().isNotFound());
+    	mvc.perform(delete("/admin/cache/symbols/KO")).andExpect(status().isNotFound());
+    	mvc.perform(post("/admin/cache/symbols/KO/refresh")).andExpect(status().isNotFound());
+    	mvc.perform(post("/admin/cache/refresh?symbols=KO")).andExpect(status().isNotFound());
+    	mvc.perform(post("/admin/import")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,61 @@
+package service.controllers;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import service.DividendCsvImporter;
+import service.models.CsvImportResult;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(AdminImportController.class)
+@TestPropertySource(properties = "admin.enabled=true")
+public class AdminImportControllerTests {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private DividendCsvImporter importer;
+
+    @Test
+    public void testImportWithinRoot() throws Exception {
+    	Path root = folder.getRoot().toPath();
+    	Path file = folder.newFile("dividends.csv").toPath();
+    	CsvImportResult result = new CsvImportResult();
+    	result.setRows(42);
+
+    	given(importer.getImportRoot()).willReturn(root);
+    	given(importer.importFiles(file)).willReturn(result);
+
+    	mvc.perform(post("/admin/import?path=dividends.csv"))
+    		.andExpect(status().isOk())
+    		.andExpect(jsonPath("$.rows").value(42));
+
+    	mvc.perform(post("/admin/import?path=../etc/passwd"))
+    		.andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testImportWithoutConfiguredPath() throws Exception {
+    	mvc.perform(post("/admin/import"))
+    		.andExpect(status().isBadRequest());
+    }
+}
@@ -3,6 +3,7 @@ package service.controllers;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.Month;
@@ -24,7 +25,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import service.BinaryModelCodec;
+import service.BinaryModelHttpMessageConverter;
 import service.HTMLUnitDataSource;
+import service.ImportedDividends;
+import service.UpstreamUnavailableException;
 import service.models.*;
 
 @RunWith(SpringRunner.class)
@@ -37,6 +42,9 @@ public class DividendStockControllerTests {
     @MockBean
     private HTMLUnitDataSource dataSource;
     
+    @MockBean
+    private ImportedDividends importedDividends;
+    
 	@Mock
 	private StockData stockData = null;
 	
@@ -120,6 +128,42 @@ public class DividendStockControllerTests {
         assertThat(response.getContentAsString()).isEqualTo(jsonDividendHistory.write(dividendHistory).getJson());
     }
     
+    @Test
+    public void testGetDividendHistoryBinary() throws Exception {
+    	dividendHistory = new DividendHistory();
+    	dividendHistory.addDividendPayment(LocalDate.of(2018, Month.JANUARY, 1), new BigDecimal(".40"));
+    	dividendHistory.addDividendPayment(LocalDate.of(2018, Month.APRIL, 1), new BigDecimal(".45"));
+    	
+        given(dataSource.createDividendHistory("AAPL")).willReturn(dividendHistory);
+
+        MockHttpServletResponse response = mvc.perform(
+        		get("/stocks/AAPL/dividends/history")
+        		.accept(BinaryModelHttpMessageConverter.APPLICATION_DIVIDEND_BINARY))
+        		.andReturn().getResponse();
+ 
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).isEqualTo(BinaryModelHttpMessageConverter.APPLICATION_DIVIDEND_BINARY.toString());
+        DividendHistory decoded = new BinaryModelCodec().decode(
+        		new ByteArrayInputStream(response.getContentAsByteArray()), DividendHistory.class);
+        assertThat(jsonDividendHistory.write(decoded).getJson()).isEqualTo(jsonDividendHistory.write(dividendHistory).getJson());
+    }
+    
+    @Test
+    public void testGetStockDataDefaultsToJson() throws Exception {
+    	stockData = new StockData();
+    	stockData.setSymbol("symbol");
+    	
+        given(dataSource.createStockData("AAPL")).willReturn(stockData);
+
+        MockHttpServletResponse response = mvc.perform(
+        		get("/stocks/AAPL")
+        		.accept(MediaType.ALL))
+        		.andReturn().getResponse();
+ 
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsString()).isEqualTo(jsonStockData.write(stockData).getJson());
+    }
+    
     @Test
     public void testGetFundamentalsExists() throws Exception {
     	fundamentalData = new FundamentalData();
@@ -191,4 +235,30 @@ public class DividendStockControllerTests {
         assertThat(response.getContentAsString()).isEqualTo("");
     }
     
+    @Test
+    public void testGetStockDataUpstreamTimedOut() throws Exception {
+        given(dataSource.createStockData("AAPL")).willThrow(
+        		new UpstreamUnavailableException("Upstream request for AAPL timed out", null, true));
+
+        MockHttpServletResponse response = mvc.perform(
+        		get("/stocks/AAPL")
+        		.accept(MediaType.APPLICATION_JSON))
+        		.andReturn().getResponse();
+ 
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT.value());
+    }
+    
+    @Test
+    public void testGetDividendHistoryUpstreamFailed() throws Exception {
+        given(dataSource.createDividendHistory("AAPL")).willThrow(
+        		new UpstreamUnavailableException("Upstream request for AAPL failed", null, false));
+
+        MockHttpServletResponse response = mvc.perform(
+        		get("/stocks/AAPL/dividends/history")
+        		.accept(MediaType.APPLICATION_JSON))
+        		.andReturn().getResponse();
+ 
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+    
 }
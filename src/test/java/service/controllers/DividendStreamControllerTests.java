@@ -0,0 +1,51 @@
+package service.controllers;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import service.DividendChangeBroadcaster;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(DividendStreamController.class)
+public class DividendStreamControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private DividendChangeBroadcaster broadcaster;
+
+    @Test
+    public void testStreamDividends() throws Exception {
+    	given(broadcaster.subscribe(Arrays.asList("KO", "PEP"))).willReturn(new SseEmitter());
+
+    	mvc.perform(get("/stream/dividends?symbols=ko, PEP,,KO"))
+    		.andExpect(status().isOk())
+    		.andExpect(request().asyncStarted());
+
+    	verify(broadcaster).subscribe(Arrays.asList("KO", "PEP"));
+    }
+
+    @Test
+    public void testStreamDividendsWithoutSymbols() throws Exception {
+    	mvc.perform(get("/stream/dividends?symbols=,"))
+    		.andExpect(status().isBadRequest());
+
+    	verifyZeroInteractions(broadcaster);
+    }
+}
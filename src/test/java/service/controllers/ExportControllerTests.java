@@ -0,0 +1,120 @@
+package service.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import service.ImportedDividends;
+import service.StockCacheView;
+import service.models.DividendData;
+import service.models.DividendHistory;
+import service.models.StockData;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(ExportController.class)
+public class ExportControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private StockCacheView cacheView;
+
+    @MockBean
+    private ImportedDividends importedDividends;
+
+    @Test
+    public void testExportDividends() throws Exception {
+    	StockData stockData = new StockData();
+    	stockData.setSymbol("AAPL");
+    	stockData.setName("Apple Inc");
+    	DividendData dividendData = new DividendData();
+    	dividendData.setLastDividend(new BigDecimal("0.73"));
+
+    	givenCachedSymbols("AAPL", "NODIV");
+    	given(cacheView.getStored(StockCacheView.STOCK_DATA, "AAPL", StockData.class)).willReturn(stockData);
+    	given(cacheView.getStored(StockCacheView.DIVIDEND_DATA, "AAPL", DividendData.class)).willReturn(dividendData);
+
+    	MockHttpServletResponse response = export("/export/dividends.ndjson");
+
+    	assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+    	assertThat(response.getContentType()).isEqualTo("application/x-ndjson");
+    	assertThat(response.getContentAsString()).isEqualTo(
+    			"{\"symbol\":\"AAPL\",\"stockData\":{\"name\":\"Apple Inc\",\"symbol\":\"AAPL\",\"exchange\":null,\"industry\":null,\"sector\":null},"
+    			+ "\"dividendData\":{\"lastPayDate\":null,\"lastExDividendDate\":null,\"lastDividend\":0.73,"
+    			+ "\"estimatedForwardAnnualDividend\":null,\"estimatedForwardAnnualYield\":null,\"yearsPaying\":0}}\n");
+    }
+
+    @Test
+    public void testExportHistory() throws Exception {
+    	DividendHistory history = new DividendHistory();
+    	history.addDividendPayment(LocalDate.of(2018, Month.MAY, 11), new BigDecimal("0.73"));
+
+    	givenCachedSymbols("AAPL", "MSFT");
+    	given(cacheView.getStored(StockCacheView.DIVIDEND_HISTORY, "AAPL", DividendHistory.class)).willReturn(history);
+    	given(cacheView.getStored(StockCacheView.DIVIDEND_HISTORY, "MSFT", DividendHistory.class)).willReturn(history);
+
+    	MockHttpServletResponse response = export("/export/history.ndjson");
+
+    	String line = "{\"dividends\":[{\"date\":\"2018-05-11\",\"dividend\":0.73}]}}\n";
+    	assertThat(response.getContentAsString()).isEqualTo(
+    			"{\"symbol\":\"AAPL\",\"dividendHistory\":" + line + "{\"symbol\":\"MSFT\",\"dividendHistory\":" + line);
+    }
+
+    @Test
+    public void testExportHistoryIncludesUncachedImports() throws Exception {
+    	DividendHistory history = new DividendHistory();
+    	history.addDividendPayment(LocalDate.of(2018, Month.MAY, 11), new BigDecimal("0.73"));
+
+    	givenCachedSymbols("AAPL");
+    	given(cacheView.getStored(StockCacheView.DIVIDEND_HISTORY, "AAPL", DividendHistory.class)).willReturn(history);
+    	willAnswer(invocation -> {
+    		Consumer<String> action = invocation.getArgument(0);
+    		action.accept("AAPL");
+    		action.accept("KO");
+    		return null;
+    	}).given(importedDividends).forEachSymbol(any());
+    	given(importedDividends.merge("KO", null)).willReturn(history);
+
+    	MockHttpServletResponse response = export("/export/history.ndjson");
+
+    	String line = "{\"dividends\":[{\"date\":\"2018-05-11\",\"dividend\":0.73}]}}\n";
+    	assertThat(response.getContentAsString()).isEqualTo(
+    			"{\"symbol\":\"AAPL\",\"dividendHistory\":" + line + "{\"symbol\":\"KO\",\"dividendHistory\":" + line);
+    }
+
+    private void givenCachedSymbols(String... symbols) {
+    	willAnswer(invocation -> {
+    		Consumer<String> action = invocation.getArgument(0);
+    		for (String symbol : symbols) {
+    			action.accept(symbol);
+    		}
+    		return null;
+    	}).given(cacheView).forEachStoredSymbol(any());
+    }
+
+    private MockHttpServletResponse export(String url) throws Exception {
+    	MvcResult result = mvc.perform(get(url)).andReturn();
+
+    	return mvc.perform(asyncDispatch(result)).andReturn().getResponse();
+    }
+}
@@ -0,0 +1,55 @@
+package service.controllers;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import service.SectorRollups;
+import service.models.Amount;
+import service.models.SectorSummary;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(SectorController.class)
+public class SectorControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private SectorRollups rollups;
+
+    @Test
+    public void testGetSectors() throws Exception {
+    	SectorSummary summary = new SectorSummary();
+    	summary.setName("Technology");
+    	summary.setSymbolCount(1);
+    	summary.setMedianForwardYield(new BigDecimal("6.50"));
+    	summary.setTopPayers(Collections.singletonList(new SectorSummary.Payer("T", "AT&T Inc", Amount.of(650, 2))));
+    	given(rollups.getSectors(5)).willReturn(Collections.singletonList(summary));
+
+    	mvc.perform(get("/sectors"))
+    		.andExpect(status().isOk())
+    		.andExpect(content().json("[{\"name\":\"Technology\",\"symbolCount\":1,\"medianForwardYield\":6.50,"
+    				+ "\"topPayers\":[{\"symbol\":\"T\",\"name\":\"AT&T Inc\",\"estimatedForwardAnnualYield\":6.50}]}]"));
+    }
+
+    @Test
+    public void testGetIndustriesOfUnknownSector() throws Exception {
+    	given(rollups.getIndustries("Utilities", 5)).willReturn(null);
+
+    	mvc.perform(get("/sectors/Utilities/industries"))
+    		.andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,45 @@
+package service.controllers;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import service.SymbolIndex;
+import service.models.SymbolMatch;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(SymbolSearchController.class)
+public class SymbolSearchControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private SymbolIndex symbolIndex;
+
+    @Test
+    public void testSearch() throws Exception {
+    	given(symbolIndex.search("APP", 2)).willReturn(Arrays.asList(new SymbolMatch("APP", "AppLovin Corp"), new SymbolMatch("AAPL", "Apple Inc")));
+
+    	mvc.perform(get("/symbols/search?q=APP&limit=2"))
+    		.andExpect(status().isOk())
+    		.andExpect(content().json("[{\"symbol\":\"APP\",\"name\":\"AppLovin Corp\"},{\"symbol\":\"AAPL\",\"name\":\"Apple Inc\"}]"));
+    }
+
+    @Test
+    public void testSearchRejectsBlankQuery() throws Exception {
+    	mvc.perform(get("/symbols/search?q= "))
+    		.andExpect(status().isBadRequest());
+    }
+}
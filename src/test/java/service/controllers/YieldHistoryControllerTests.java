@@ -0,0 +1,72 @@
+package service.controllers;
+
+import static org.mockito.BDDMockito.given;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import service.CacheRefresher;
+import service.LastCloseSnapshots;
+import service.LastCloseSnapshots.Snapshot;
+import service.StockCacheView;
+import service.models.Amount;
+import service.models.DividendHistory;
+
+@RunWith(SpringRunner.class)
+@WebMvcTest(YieldHistoryController.class)
+public class YieldHistoryControllerTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private CacheRefresher refresher;
+
+    @MockBean
+    private LastCloseSnapshots snapshots;
+
+    @Test
+    public void testGetYieldHistory() throws Exception {
+    	DividendHistory history = new DividendHistory();
+    	history.addDividendPayment(LocalDate.of(2017, 3, 14), new BigDecimal("0.37"));
+    	history.addDividendPayment(LocalDate.of(2017, 6, 13), new BigDecimal("0.37"));
+    	history.addDividendPayment(LocalDate.of(2017, 9, 14), new BigDecimal("0.37"));
+    	history.addDividendPayment(LocalDate.of(2017, 11, 30), new BigDecimal("0.37"));
+    	history.addDividendPayment(LocalDate.of(2018, 3, 14), new BigDecimal("0.39"));
+    	given(refresher.getOrLoad(StockCacheView.DIVIDEND_HISTORY, "KO", DividendHistory.class)).willReturn(history);
+
+    	LocalDate from = LocalDate.of(2018, 3, 13);
+    	LocalDate to = LocalDate.of(2018, 3, 14);
+    	given(snapshots.read("KO", from, to)).willReturn(Arrays.asList(
+    			new Snapshot(from, Amount.of(4400, 2)), new Snapshot(to, Amount.of(4500, 2))));
+
+    	mvc.perform(get("/stocks/KO/yield/history?from=2018-03-13&to=2018-03-14"))
+    		.andExpect(status().isOk())
+    		.andExpect(content().json("[{\"date\":\"2018-03-13\",\"lastClose\":44.00,\"trailingAnnualDividend\":1.48,\"trailingAnnualYield\":3.36},"
+    				+ "{\"date\":\"2018-03-14\",\"lastClose\":45.00,\"trailingAnnualDividend\":1.50,\"trailingAnnualYield\":3.33}]"));
+    }
+
+    @Test
+    public void testGetYieldHistoryOfUnknownSymbol() throws Exception {
+    	mvc.perform(get("/stocks/NOPE/yield/history"))
+    		.andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testGetYieldHistoryWithReversedRange() throws Exception {
+    	mvc.perform(get("/stocks/KO/yield/history?from=2018-03-14&to=2018-03-13"))
+    		.andExpect(status().isBadRequest());
+    }
+}
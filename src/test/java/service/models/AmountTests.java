@@ -0,0 +1,64 @@
+package service.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.Test;
+
+public class AmountTests {
+
+	@Test
+	public void testParseKeepsScale() {
+		assertEquals(new BigDecimal("0.080"), Amount.parse("$0.080").toBigDecimal());
+		assertEquals(new BigDecimal("1234.5"), Amount.parse(" $1,234.5 ").toBigDecimal());
+		assertEquals(new BigDecimal("-7"), Amount.parse("-7").toBigDecimal());
+	}
+
+	@Test(expected = NumberFormatException.class)
+	public void testParseRejectsText() {
+		Amount.parse("N/A");
+	}
+
+	@Test
+	public void testPercentOfMatchesBigDecimal() {
+		String[][] cases = {{"2.92", "219.70"}, {"0.080", "3"}, {"1.5", "0.07"}, {"0.125", "1000"}, {"2", "400"}};
+
+		for (String[] dividendAndPrice : cases) {
+			BigDecimal dividend = new BigDecimal(dividendAndPrice[0]);
+			BigDecimal price = new BigDecimal(dividendAndPrice[1]);
+			BigDecimal expected = dividend.scaleByPowerOfTen(2).divide(price, 2, RoundingMode.HALF_EVEN);
+
+			assertEquals(expected, Amount.of(dividend).percentOf(Amount.of(price), 2).toBigDecimal());
+		}
+	}
+
+	@Test
+	public void testCompareIgnoresScale() {
+		assertEquals(0, Amount.parse("0.50").compareTo(Amount.parse("0.5")));
+		assertTrue(Amount.parse("0.51").compareTo(Amount.parse("0.5")) > 0);
+		assertEquals(126, Amount.parse("1.255").unscaledAt(2));
+		assertEquals(Amount.parse("1.75"), Amount.parse("1.5").add(Amount.parse("0.25")));
+	}
+
+	@Test
+	public void testDividedByMatchesBigDecimal() {
+		String[] totals = {"10.01", "0.125", "7", "-3.335", "123456789.123456"};
+
+		for (String total : totals) {
+			for (int divisor : new int[] {1, 2, 3, 7}) {
+				BigDecimal expected = new BigDecimal(total).divide(BigDecimal.valueOf(divisor), 2, RoundingMode.HALF_EVEN);
+				assertEquals(total + "/" + divisor, expected, Amount.of(new BigDecimal(total)).dividedBy(divisor, 2).toBigDecimal());
+			}
+		}
+	}
+
+	@Test
+	public void testSubtractAndRescale() {
+		assertEquals(new BigDecimal("1.195"), Amount.of(new BigDecimal("2.5")).subtract(Amount.of(new BigDecimal("1.305"))).toBigDecimal());
+		assertEquals(new BigDecimal("1.20"), Amount.of(new BigDecimal("1.195")).rescale(2).toBigDecimal());
+		assertEquals(new BigDecimal("3.500"), Amount.of(new BigDecimal("3.5")).rescale(3).toBigDecimal());
+	}
+}
@@ -0,0 +1,34 @@
+package service.models;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.Test;
+
+import service.models.DividendHistory.DividendPayment;
+
+public class DividendHistoryTests {
+
+	@Test
+	public void testPaymentsAreKeptInDateOrder() {
+		DividendHistory history = new DividendHistory();
+		history.addDividendPayment(LocalDate.of(2018, 5, 11), Amount.of(73, 2));
+		history.addDividendPayment(LocalDate.of(2017, 11, 10), Amount.of(63, 2));
+		history.addDividendPayment(LocalDate.of(2018, 2, 9), Amount.of(63, 2));
+		history.addDividendPayment(LocalDate.of(2018, 2, 9), Amount.of(1, 2));
+
+		List<DividendPayment> payments = history.getDividends();
+
+		assertEquals(LocalDate.of(2017, 11, 10), payments.get(0).getDate());
+		assertEquals(Amount.of(63, 2), payments.get(1).getDividendAmount());
+		assertEquals(Amount.of(1, 2), payments.get(2).getDividendAmount());
+		assertEquals(LocalDate.of(2018, 5, 11), payments.get(3).getDate());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testPaymentsCannotBeChangedThroughTheList() {
+		new DividendHistory().getDividends().add(new DividendPayment(LocalDate.of(2018, 5, 11), null));
+	}
+}
@@ -0,0 +1,48 @@
+package service.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+
+import service.BinaryModelCodec;
+
+public class StringDictionaryTests {
+
+	@Test
+	public void testCanonicalInstanceAndIds() {
+		StringDictionary dictionary = new StringDictionary();
+		String first = dictionary.canonical(new String("Technology"));
+
+		assertSame(first, dictionary.canonical(new String("Technology")));
+		assertEquals(0, dictionary.id("Technology"));
+		assertEquals(1, dictionary.id("Utilities"));
+		assertEquals("Utilities", dictionary.value(1));
+		assertEquals(-1, dictionary.id(null));
+		assertNull(dictionary.canonical(null));
+		assertNull(dictionary.value(2));
+		assertEquals(2, dictionary.size());
+	}
+
+	@Test
+	public void testStockDataSharesDecodedStrings() throws Exception {
+		StockData scraped = new StockData();
+		scraped.setSymbol("AAPL");
+		scraped.setExchange(new String("NASDAQ"));
+		scraped.setSector(new String("Technology"));
+
+		BinaryModelCodec codec = new BinaryModelCodec();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		codec.encode(scraped, out);
+		StockData loaded = codec.decode(new ByteArrayInputStream(out.toByteArray()), StockData.class);
+
+		assertSame(scraped.getExchange(), loaded.getExchange());
+		assertSame(scraped.getSector(), loaded.getSector());
+		assertEquals(scraped.getSectorId(), loaded.getSectorId());
+		assertEquals(-1, loaded.getIndustryId());
+	}
+}